@@ -0,0 +1,79 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import reedmuller.ReedMuller;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de la recherche rapide par lots, avec l'API Vector et avec la
+ * recherche scalaire (-Dreedmuller.vector=false), et sa version à décision
+ * douce. Un lot a la taille d'une image de 128x128 pixels.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class BatchBenchmark {
+    private static final int WORDS = 128 * 128;
+    private static final double PROBABILITY = 0.05;
+    private static final double SIGMA = 0.6;
+
+    @Param({"5", "6"})
+    private int r;
+
+    private ReedMuller rm;
+    private long[] received;
+    private float[] soft;
+    private int[] decoded;
+
+    @Setup
+    public void setup() {
+        rm = new ReedMuller(r);
+        SplittableRandom random = new SplittableRandom(r);
+        received = new long[WORDS];
+        soft = new float[WORDS * rm.getEndDim()];
+        decoded = new int[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            long encoded = rm.encode(random.nextInt(1 << rm.getStartDim()));
+            received[i] = rm.noise(encoded, PROBABILITY, random);
+            // modulation BPSK (0 -> +1, 1 -> -1) et bruit gaussien
+            for (int b = 0; b < rm.getEndDim(); b++) {
+                double symbol = 1 - 2 * (encoded >>> b & 1);
+                soft[i * rm.getEndDim() + b] = (float) (symbol + SIGMA * gaussian(random));
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] fastSearchAll() {
+        rm.fastSearchAll(received, decoded);
+        return decoded;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Dreedmuller.vector=false"})
+    public int[] fastSearchAllScalar() {
+        rm.fastSearchAll(received, decoded);
+        return decoded;
+    }
+
+    @Benchmark
+    public int[] softFastSearchAll() {
+        rm.fastSearchAll(soft, decoded);
+        return decoded;
+    }
+
+    /**
+     * Tire une valeur selon la loi normale centrée réduite (Box-Muller).
+     */
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+}
@@ -0,0 +1,83 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import reedmuller.ReedMuller;
+import reedmuller.Word;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks des opérations de ReedMuller sur un mot, pour différents ordres r.
+ * Les mots sont précalculés et parcourus en boucle pour éviter que le JIT
+ * ne replie les calculs.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+    private static final int WORDS = 256;
+    private static final double PROBABILITY = 0.05;
+
+    @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12"})
+    private int r;
+
+    private ReedMuller rm;
+    private Word[] messages;
+    private Word[] encoded;
+    private Word[] noised;
+    private int index;
+
+    @Setup
+    public void setup() {
+        rm = new ReedMuller(r);
+        SplittableRandom random = new SplittableRandom(r);
+        messages = new Word[WORDS];
+        encoded = new Word[WORDS];
+        noised = new Word[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            messages[i] = new Word(rm.getStartDim());
+            for (int b = 0; b < rm.getStartDim(); b++) {
+                messages[i].set(b, random.nextInt(2));
+            }
+            encoded[i] = rm.encode(messages[i]);
+            noised[i] = rm.noise(encoded[i], PROBABILITY, random);
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (WORDS - 1);
+        return index;
+    }
+
+    @Benchmark
+    public Word encode() {
+        return rm.encode(messages[next()]);
+    }
+
+    @Benchmark
+    public Word decode() {
+        return rm.decode(encoded[next()]);
+    }
+
+    @Benchmark
+    public Word noise() {
+        return rm.noise(encoded[next()], PROBABILITY);
+    }
+
+    @Benchmark
+    public Word semiExhaustiveSearch() {
+        return rm.semiExhaustiveSearch(noised[next()]);
+    }
+
+    @Benchmark
+    public Word fastSearch() {
+        return rm.fastSearch(noised[next()]);
+    }
+}
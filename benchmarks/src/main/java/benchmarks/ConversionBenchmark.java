@@ -0,0 +1,81 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import reedmuller.ReedMuller;
+import reedmuller.Word;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks des conversions entre BigInteger et Word, sur des mots codés
+ * de 2^r bits (valeurs positives et négatives, comme dans les fichiers de data/).
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionBenchmark {
+    private static final int WORDS = 256;
+
+    @Param({"1", "3", "5", "6", "7", "8", "10"})
+    private int r;
+
+    private int size;
+    private BigInteger[] values;
+    private Word[] words;
+    private long[][] longs;
+    private int index;
+
+    @Setup
+    public void setup() {
+        ReedMuller rm = new ReedMuller(r);
+        size = rm.getEndDim();
+        SplittableRandom random = new SplittableRandom(r);
+        values = new BigInteger[WORDS];
+        words = new Word[WORDS];
+        longs = new long[WORDS][];
+        for (int i = 0; i < WORDS; i++) {
+            BigInteger value = new BigInteger(size, new Random(random.nextLong()));
+            // une valeur sur deux négative, comme les entiers signés des images de Mars
+            if (i % 2 == 1 && size > 2) {
+                value = value.shiftRight(2).negate();
+            }
+            values[i] = value;
+            words[i] = Word.bigIntToWord(value, size);
+            longs[i] = words[i].toLongs();
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (WORDS - 1);
+        return index;
+    }
+
+    @Benchmark
+    public Word bigIntToWord() {
+        return Word.bigIntToWord(values[next()], size);
+    }
+
+    @Benchmark
+    public BigInteger wordToBigInt() {
+        return Word.wordToBigInt(words[next()]);
+    }
+
+    @Benchmark
+    public Word fromLongs() {
+        return Word.fromLongs(longs[next()], 0, size);
+    }
+
+    @Benchmark
+    public long[] toLongs() {
+        return words[next()].toLongs();
+    }
+}
@@ -0,0 +1,63 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import reedmuller.HigherOrderReedMuller;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de l'encodage et du décodage à logique majoritaire des codes
+ * RM(k, m) d'ordre quelconque, sur des mots tenant dans un long.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HigherOrderBenchmark {
+    private static final int WORDS = 256;
+
+    @Param({"1,5", "2,5", "2,6", "3,6"})
+    private String code;
+
+    private HigherOrderReedMuller rm;
+    private long[] messages;
+    private long[] noised;
+    private int index;
+
+    @Setup
+    public void setup() {
+        String[] km = code.split(",");
+        rm = new HigherOrderReedMuller(Integer.parseInt(km[0]), Integer.parseInt(km[1]));
+        SplittableRandom random = new SplittableRandom(rm.getEndDim());
+        messages = new long[WORDS];
+        noised = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            messages[i] = random.nextLong() >>> (Long.SIZE - rm.getStartDim());
+            noised[i] = rm.encode(messages[i]);
+            for (int e = 0; e < rm.getCorrectableErrors(); e++) {
+                noised[i] ^= 1L << random.nextInt(rm.getEndDim());
+            }
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (WORDS - 1);
+        return index;
+    }
+
+    @Benchmark
+    public long encode() {
+        return rm.encode(messages[next()]);
+    }
+
+    @Benchmark
+    public long decode() {
+        return rm.decode(noised[next()]);
+    }
+}
@@ -0,0 +1,111 @@
+package benchmarks;
+
+import images.PGM;
+import images.TileReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks des opérations sur des images entières, avec les images de data/
+ * (à lancer depuis la racine du projet).
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageBenchmark {
+    private static final double PROBABILITY = 0.05;
+
+    @Param({"lena", "mars"})
+    private String image;
+
+    private String rawFile;
+    private String encodedFile;
+    private PGM raw;
+    private PGM encoded;
+    private File output;
+    private TileReader tiles;
+
+    @Setup
+    public void setup() throws IOException {
+        if (image.equals("lena")) {
+            rawFile = "data/lena_copy.pgm";
+            encodedFile = "data/lena_encoded_noised.pgm";
+        }
+        else {
+            rawFile = "data/mars_decoded_fast.pgm";
+            encodedFile = "data/mars-crat.enc.alt_0.10";
+        }
+        raw = PGM.read(rawFile);
+        encoded = PGM.read(encodedFile);
+        output = File.createTempFile("benchmark", ".pgm");
+        output.deleteOnExit();
+        File packed = File.createTempFile("benchmark", ".rmpk");
+        packed.deleteOnExit();
+        PGM.writePacked(encoded, packed.getPath());
+        tiles = new TileReader(packed.getPath());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        tiles.close();
+    }
+
+    @Benchmark
+    public PGM read() throws IOException {
+        return PGM.read(encodedFile);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        PGM.write(encoded, output.getPath());
+    }
+
+    @Benchmark
+    public PGM encode() {
+        return raw.encode();
+    }
+
+    @Benchmark
+    public PGM decode() {
+        return encoded.decode();
+    }
+
+    @Benchmark
+    public PGM noise() {
+        return encoded.noise(PROBABILITY);
+    }
+
+    @Benchmark
+    public PGM denoise() {
+        return encoded.denoise();
+    }
+
+    @Benchmark
+    public PGM denoiseAndDecode() {
+        return encoded.denoiseAndDecode();
+    }
+
+    @Benchmark
+    public PGM readTile() {
+        return tiles.readTile(tiles.getWidth() / 4, tiles.getHeight() / 4, 32, 32);
+    }
+
+    @Benchmark
+    public PGM chained() {
+        return raw.encode().noise(PROBABILITY).denoiseAndDecode();
+    }
+
+    @Benchmark
+    public PGM fused() {
+        return raw.pipeline().encode().noise(PROBABILITY).denoiseAndDecode().apply();
+    }
+}
@@ -0,0 +1,63 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import reedmuller.StreamCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks du codage de flux d'octets, sur 4 Mio de données aléatoires
+ * en mémoire (le débit en octets est 4 Mio fois le nombre d'ops/s).
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class StreamBenchmark {
+    private static final int BYTES = 4 << 20;
+
+    @Param({"3", "5", "6"})
+    private int r;
+
+    private byte[] data;
+    private byte[] encoded;
+    private ByteArrayOutputStream output;
+
+    @Setup
+    public void setup() throws IOException {
+        data = new byte[BYTES];
+        SplittableRandom random = new SplittableRandom(r);
+        for (int i = 0; i < BYTES; i += Long.BYTES) {
+            long value = random.nextLong();
+            for (int b = 0; b < Long.BYTES; b++) {
+                data[i + b] = (byte) (value >>> (b * Byte.SIZE));
+            }
+        }
+        output = new ByteArrayOutputStream(BYTES << r);
+        StreamCodec.encode(new ByteArrayInputStream(data), output, r);
+        encoded = output.toByteArray();
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        output.reset();
+        StreamCodec.encode(new ByteArrayInputStream(data), output, r);
+        return output.size();
+    }
+
+    @Benchmark
+    public int decode() throws IOException {
+        output.reset();
+        StreamCodec.decode(new ByteArrayInputStream(encoded), output);
+        return output.size();
+    }
+}
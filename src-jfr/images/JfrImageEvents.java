@@ -0,0 +1,57 @@
+package images;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Événements JFR des opérations sur les images. Quand JFR n'enregistre pas
+ * l'événement, {@link #begin()} retourne null sans rien mesurer.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+final class JfrImageEvents implements ImageEvents {
+    @Override
+    public Object begin() {
+        ImageOperationEvent event = new ImageOperationEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void commit(Object event, String operation, int width, int height, int r) {
+        ImageOperationEvent imageEvent = (ImageOperationEvent) event;
+        imageEvent.operation = operation;
+        imageEvent.width = width;
+        imageEvent.height = height;
+        imageEvent.r = r;
+        imageEvent.commit();
+    }
+
+    /**
+     * Une opération sur une image (encodage, bruit, décodage...).
+     */
+    @Name("reedmuller.ImageOperation")
+    @Label("Image Operation")
+    @Category("Reed-Muller")
+    @Description("An operation on a whole PGM image")
+    static final class ImageOperationEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Width")
+        int width;
+
+        @Label("Height")
+        int height;
+
+        @Label("Order")
+        int r;
+    }
+}
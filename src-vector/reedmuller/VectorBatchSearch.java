@@ -0,0 +1,72 @@
+package reedmuller;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Recherche rapide par lots avec l'API Vector : chaque voie d'un vecteur
+ * traite un mot reçu différent. La transformée de Walsh-Hadamard, la
+ * recherche du maximum de |fHat| (le premier en cas d'égalité) et le choix
+ * du signe se font sur tous les mots du groupe à la fois, avec les mêmes
+ * résultats que la recherche scalaire.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+final class VectorBatchSearch implements BatchSearch {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    @Override
+    public int fastSearch(int r, long[] received, int[] decoded, int count) {
+        int endDim = 1 << r;
+        // f[pos * LANES + voie] : bit pos du mot de la voie, converti en +1 / -1
+        int[] f = new int[endDim * LANES];
+        int[] low = new int[LANES];
+        int[] high = new int[LANES];
+        IntVector one = IntVector.broadcast(SPECIES, 1);
+        int done = 0;
+        for (; done + LANES <= count; done += LANES) {
+            for (int lane = 0; lane < LANES; lane++) {
+                low[lane] = (int) received[done + lane];
+                high[lane] = (int) (received[done + lane] >>> Integer.SIZE);
+            }
+            IntVector lowBits = IntVector.fromArray(SPECIES, low, 0);
+            IntVector highBits = IntVector.fromArray(SPECIES, high, 0);
+            for (int pos = 0; pos < endDim; pos++) {
+                IntVector bits = pos < Integer.SIZE ? lowBits : highBits;
+                IntVector bit = bits.lanewise(VectorOperators.LSHR, pos & (Integer.SIZE - 1)).and(1);
+                one.sub(bit.add(bit)).intoArray(f, pos * LANES);
+            }
+
+            for (int half = 1; half < endDim; half <<= 1) {
+                for (int i = 0; i < endDim; i += half << 1) {
+                    for (int j = i; j < i + half; j++) {
+                        IntVector a = IntVector.fromArray(SPECIES, f, j * LANES);
+                        IntVector b = IntVector.fromArray(SPECIES, f, (j + half) * LANES);
+                        a.add(b).intoArray(f, j * LANES);
+                        a.sub(b).intoArray(f, (j + half) * LANES);
+                    }
+                }
+            }
+
+            // |fHat| >= 0, -1 joue le rôle de Integer.MIN_VALUE de la version scalaire
+            IntVector max = IntVector.broadcast(SPECIES, -1);
+            IntVector index = IntVector.zero(SPECIES);
+            IntVector value = IntVector.zero(SPECIES);
+            for (int pos = 0; pos < endDim; pos++) {
+                IntVector fHat = IntVector.fromArray(SPECIES, f, pos * LANES);
+                IntVector abs = fHat.abs();
+                VectorMask<Integer> greater = abs.compare(VectorOperators.GT, max);
+                max = max.blend(abs, greater);
+                index = index.blend(pos, greater);
+                value = value.blend(fHat, greater);
+            }
+            VectorMask<Integer> negative = value.compare(VectorOperators.LT, 0);
+            index.add(IntVector.broadcast(SPECIES, endDim), negative).intoArray(decoded, done);
+        }
+        return done;
+    }
+}
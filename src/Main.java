@@ -1,14 +1,23 @@
 import images.PGM;
+import images.PGMReader;
+import images.Pipeline;
+import reedmuller.ErrorRateSimulation;
 import reedmuller.ReedMuller;
 import reedmuller.Word;
 
 import java.io.File;
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
+import java.util.function.UnaryOperator;
 
 import static images.PGM.read;
+import static images.PGM.readPacked;
 import static images.PGM.write;
+import static images.PGM.writePacked;
 import static reedmuller.Word.bigIntToWord;
 import static reedmuller.Word.wordToBigInt;
 
@@ -36,7 +45,219 @@ public class Main {
         }
     }
 
+    private static final String USAGE = "Usage: --ops op1,op2,... --in entree.pgm --out sortie.pgm"
+            + " [--r r] [--binary] [--fused] [--threads n] [--rows n]\n"
+            + "Opérations: encode, decode, noise:p[:graine], denoise, denoise-decode\n"
+            + "Les fichiers .rmpk sont lus et écrits au format binaire compact.";
+
+    /**
+     * Une étape du pipeline : son nom (pour les temps affichés) et l'opération ajoutée au pipeline.
+     */
+    private static final class Stage {
+        final String name;
+        final UnaryOperator<Pipeline> operation;
+
+        Stage(String name, UnaryOperator<Pipeline> operation) {
+            this.name = name;
+            this.operation = operation;
+        }
+    }
+
+    /**
+     * Traduit une opération de la ligne de commande, par exemple "noise:0.05" ou "noise:0.05:42".
+     *
+     * @param op l'opération
+     * @return l'étape correspondante
+     * @throws IllegalArgumentException si l'opération est inconnue ou mal formée
+     */
+    private static Stage parseStage(String op) throws IllegalArgumentException {
+        String[] parts = op.split(":", -1);
+        if (parts.length > 1 && !parts[0].equals("noise")) {
+            throw new IllegalArgumentException("The operation " + parts[0] + " takes no parameter: " + op);
+        }
+        switch (parts[0]) {
+            case "encode":
+                return new Stage(op, Pipeline::encode);
+            case "decode":
+                return new Stage(op, Pipeline::decode);
+            case "denoise":
+                return new Stage(op, Pipeline::denoise);
+            case "denoise-decode":
+                return new Stage(op, Pipeline::denoiseAndDecode);
+            case "noise":
+                if (parts.length < 2 || parts.length > 3) {
+                    throw new IllegalArgumentException("The noise operation must be noise:p or noise:p:seed");
+                }
+                double probability = Double.parseDouble(parts[1]);
+                if (!(probability >= 0.0 && probability <= 1.0)) {
+                    throw new IllegalArgumentException("The noise probability must be between 0.0 and 1.0");
+                }
+                if (parts.length == 3) {
+                    long seed = Long.parseLong(parts[2]);
+                    return new Stage(op, pipeline -> pipeline.noise(probability, seed));
+                }
+                return new Stage(op, pipeline -> pipeline.noise(probability));
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + op);
+        }
+    }
+
+    /**
+     * Mode non interactif : lit une image, enchaîne les opérations en mémoire
+     * et n'écrit que le résultat final. Les temps de chaque étape sont
+     * affichés sur le canal d'erreur. Avec --fused, toutes les étapes sont
+     * exécutées en une passe sur l'image (voir {@link Pipeline}). Avec
+     * --rows n, l'image n'est pas chargée entièrement : elle est traitée par
+     * blocs de n lignes, lecture, calcul (étapes fusionnées) et écriture se
+     * recouvrant (voir {@link PGM#process(String, String, int, UnaryOperator, boolean, int)}).
+     * Exemple : {@code --r 5 --ops encode,noise:0.05,denoise-decode --in x.pgm --out y.pgm}.
+     *
+     * @param args les arguments de la ligne de commande
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     * @throws IllegalArgumentException si les arguments ne sont pas conformes
+     */
+    public static void pipeline(String[] args) throws IOException, IllegalArgumentException {
+        String input = null;
+        String output = null;
+        List<Stage> stages = new ArrayList<>();
+        int r = -1;
+        int rows = 0;
+        // nombre de threads de calcul, 0 pour un par processeur
+        int threads = 0;
+        boolean binary = false;
+        boolean fused = false;
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--binary") || option.equals("--fused")) {
+                binary |= option.equals("--binary");
+                fused |= option.equals("--fused");
+                continue;
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--in":
+                    input = value;
+                    break;
+                case "--out":
+                    output = value;
+                    break;
+                case "--ops":
+                    for (String op : value.split(",")) {
+                        stages.add(parseStage(op.trim()));
+                    }
+                    break;
+                case "--r":
+                    r = Integer.parseInt(value);
+                    break;
+                case "--rows":
+                    rows = Integer.parseInt(value);
+                    if (rows < 1) {
+                        throw new IllegalArgumentException("--rows must be 1 or greater");
+                    }
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    PGM.setParallelism(threads);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+        if (input == null || output == null) {
+            throw new IllegalArgumentException("The options --in and --out are required");
+        }
+
+        long total = System.nanoTime();
+        if (rows > 0) {
+            stream(input, output, rows, stages, r, binary,
+                    threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+            printTime("total", total);
+            return;
+        }
+        long start = System.nanoTime();
+        PGM pgm = input.endsWith(".rmpk") ? readPacked(input) : read(input);
+        printTime("read " + input, start);
+        checkOrder(pgm, r);
+        if (fused) {
+            start = System.nanoTime();
+            pgm = fuse(pgm, stages);
+            printTime("fused", start);
+        }
+        else {
+            for (Stage stage : stages) {
+                start = System.nanoTime();
+                pgm = stage.operation.apply(pgm.pipeline()).apply();
+                printTime(stage.name, start);
+            }
+        }
+        start = System.nanoTime();
+        if (output.endsWith(".rmpk")) {
+            writePacked(pgm, output);
+        }
+        else {
+            write(pgm, output, binary);
+        }
+        printTime("write " + output, start);
+        printTime("total", total);
+    }
+
+    /**
+     * Traite une image PGM par blocs de lignes, les étapes étant fusionnées
+     * sur chaque bloc, avec threads threads de calcul.
+     */
+    private static void stream(String input, String output, int rows, List<Stage> stages, int r, boolean binary,
+                               int threads) throws IOException, IllegalArgumentException {
+        if (input.endsWith(".rmpk") || output.endsWith(".rmpk")) {
+            throw new IllegalArgumentException("--rows only processes PGM files");
+        }
+        if (r != -1) {
+            try (PGMReader header = new PGMReader(input)) {
+                checkOrder(header.readRows(0), r);
+            }
+        }
+        PGM.process(input, output, rows, block -> fuse(block, stages), binary, threads);
+    }
+
+    /**
+     * Applique toutes les étapes en une passe sur l'image.
+     */
+    private static PGM fuse(PGM image, List<Stage> stages) {
+        Pipeline pipeline = image.pipeline();
+        for (Stage stage : stages) {
+            pipeline = stage.operation.apply(pipeline);
+        }
+        return pipeline.apply();
+    }
+
+    /**
+     * Vérifie que l'ordre du code de l'image est r, si r est donné (différent de -1).
+     */
+    private static void checkOrder(PGM image, int r) throws IllegalArgumentException {
+        if (r != -1 && image.getOrder() != r) {
+            throw new IllegalArgumentException("The image's grey level " + image.getGreyLevel()
+                    + " gives r = " + image.getOrder() + ", not " + r);
+        }
+    }
+
+    private static void printTime(String stage, long start) {
+        System.err.printf("%-24s %10.3f ms%n", stage, (System.nanoTime() - start) / 1e6);
+    }
+
     public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].startsWith("--")) {
+            try {
+                pipeline(args);
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                System.err.println(USAGE);
+                System.exit(2);
+            }
+            return;
+        }
+
         // permet de prendre les entrées pour le menu
         // soit du clavier, d'un fichier ou de la ligne de commande
         Scanner in;
@@ -65,7 +286,7 @@ public class Main {
         System.err.println("Choisir un seuil de bruit (nombre entre 0.0 et 1.0): ");
         double seuil = in.nextDouble();
 
-        ReedMuller rm = new ReedMuller(r);
+        ReedMuller rm = ReedMuller.of(r);
         BigInteger mot;
         Word intToWord = null;
         Word current = null;
@@ -80,6 +301,7 @@ public class Main {
         System.err.println("0: Quitter");
         System.err.println("1: Traiter un mot");
         System.err.println("2: Traiter une image");
+        System.err.println("3: Simuler les taux d'erreur (BER/FER)");
         int mode = in.nextInt();
 
         // opération à effectuer sur le mot ou l'image
@@ -160,6 +382,17 @@ public class Main {
                 System.err.println(menu);
                 choix = in.nextInt();
             } while (choix != 0);
+        } else if (mode == 3) {
+            System.err.println("Valeurs de r à simuler (séparées par des virgules):");
+            int[] rs = Arrays.stream(in.next().split(",")).mapToInt(Integer::parseInt).toArray();
+            System.err.println("Seuils de bruit à simuler (séparés par des virgules):");
+            double[] seuils = Arrays.stream(in.next().split(",")).mapToDouble(Double::parseDouble).toArray();
+            System.err.println("Niveau de confiance (par exemple 0.95):");
+            double confiance = in.nextDouble();
+            ErrorRateSimulation simulation = new ErrorRateSimulation(confiance, 0.1, 100_000_000L, System.nanoTime());
+            for (ErrorRateSimulation.ErrorRate result : simulation.sweep(rs, seuils)) {
+                System.out.println(result);
+            }
         }
     }
 }
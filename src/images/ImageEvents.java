@@ -0,0 +1,29 @@
+package images;
+
+/**
+ * Événements JFR des opérations sur les images. Implémentée avec l'API
+ * jdk.jfr ({@code JfrImageEvents}, chargée seulement si elle est disponible,
+ * Java 11 ou plus) ; PGM s'en passe sinon.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+interface ImageEvents {
+    /**
+     * Commence un événement, si JFR l'enregistre.
+     *
+     * @return l'événement commencé, ou null s'il n'est pas enregistré
+     */
+    Object begin();
+
+    /**
+     * Termine et enregistre un événement commencé par {@link #begin()}.
+     *
+     * @param event l'événement
+     * @param operation le nom de l'opération
+     * @param width la largeur de l'image
+     * @param height la hauteur de l'image
+     * @param r l'ordre du code
+     */
+    void commit(Object event, String operation, int width, int height, int r);
+}
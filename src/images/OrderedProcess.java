@@ -0,0 +1,111 @@
+package images;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.UnaryOperator;
+
+/**
+ * Traitement d'une image par blocs de lignes sur trois étages concurrents :
+ * un thread lit les blocs, un pool de threads leur applique l'opération et
+ * le thread appelant les écrit dans l'ordre de lecture. Les blocs en cours
+ * passent par une file bornée, dans l'ordre de lecture : le lecteur attend
+ * quand elle est pleine, la mémoire utilisée reste donc limitée et le débit
+ * tend vers celui du plus lent des étages (disque ou calcul) plutôt que vers
+ * leur somme.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+final class OrderedProcess {
+    // blocs en cours par thread de calcul
+    private static final int BLOCKS_PER_WORKER = 2;
+
+    private OrderedProcess() {
+    }
+
+    /**
+     * Lit tous les blocs restants, leur applique l'opération et les écrit dans l'ordre.
+     *
+     * @param reader le lecteur de l'image
+     * @param writer l'écrivain de l'image résultat
+     * @param rows le nombre de lignes par bloc
+     * @param operation l'opération appliquée à chaque bloc
+     * @param threads le nombre de threads de calcul
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     * @throws IllegalArgumentException si le fichier n'est pas conforme
+     */
+    static void run(PGMReader reader, PGMWriter writer, int rows, UnaryOperator<PGM> operation, int threads)
+            throws IOException, IllegalArgumentException {
+        if (rows < 1 || threads < 1) {
+            throw new IllegalArgumentException("rows and threads must be 1 or greater");
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "pgm-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        BlockingQueue<CompletableFuture<PGM>> pending = new ArrayBlockingQueue<>(BLOCKS_PER_WORKER * threads);
+        CompletableFuture<PGM> end = CompletableFuture.completedFuture(null);
+        Thread producer = new Thread(() -> {
+            try {
+                while (reader.hasMoreRows()) {
+                    PGM block = reader.readRows(rows);
+                    pending.put(CompletableFuture.supplyAsync(() -> operation.apply(block), workers));
+                }
+                pending.put(end);
+            } catch (InterruptedException e) {
+                // arrêt demandé par l'écrivain
+            } catch (Throwable e) {
+                // toute erreur, OutOfMemoryError comprise, est transmise : sans elle l'écrivain attendrait sans fin
+                CompletableFuture<PGM> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                try {
+                    pending.put(failed);
+                } catch (InterruptedException ignored) {
+                    // l'écrivain s'est déjà arrêté
+                }
+            }
+        }, "pgm-reader");
+        producer.setDaemon(true);
+        producer.start();
+        try {
+            for (CompletableFuture<PGM> block = pending.take(); block != end; block = pending.take()) {
+                writer.write(join(block));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while processing the image");
+        } finally {
+            // sans effet si tout s'est bien passé, arrête le lecteur en cas d'erreur
+            producer.interrupt();
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Attend le résultat d'un bloc, en relançant l'erreur de lecture ou de calcul.
+     */
+    private static PGM join(CompletableFuture<PGM> block) throws IOException {
+        try {
+            return block.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -1,15 +1,19 @@
 package images;
 
+import reedmuller.CodecMetrics;
 import reedmuller.ReedMuller;
 import reedmuller.Word;
 
 import java.io.*;
-import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.StringTokenizer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
-import static reedmuller.Word.*;
+import static reedmuller.Word.log2;
 
 /**
  * Classe représentant une image au format PGM.
@@ -18,12 +22,21 @@ import static reedmuller.Word.*;
  * @author Steven Liatti
  */
 public class PGM {
-    private static final String CODE = "P2";
-    private int width;
-    private int height;
-    private int greyLevel;
-    private List<String> values;
-    private ReedMuller rm;
+    private final int width;
+    private final int height;
+    private final int greyLevel;
+    private Pixels values;
+    // première ligne de l'image dans le fichier dont elle est un bloc, 0 pour une image entière
+    private int firstRow;
+    // code partagé par toutes les images de même niveau de gris
+    private final ReedMuller rm;
+    private static volatile ForkJoinPool pool = ForkJoinPool.commonPool();
+    // pools créés par setParallelism, un par nombre de threads
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+    // événements JFR des opérations, null si l'API jdk.jfr n'est pas disponible
+    private static final ImageEvents EVENTS = loadEvents();
+    // nombre de lignes par bloc pour les conversions de format
+    private static final int BLOCK_ROWS = 64;
 
     /**
      * Construit une image PGM à partir des ses dimensions, un niveau de gris max
@@ -33,38 +46,260 @@ public class PGM {
      * @param height la hauteur
      * @param greyLevel le niveau de gris
      * @param values la liste des valeurs pour les pixels
+     * @throws IllegalArgumentException si la liste n'a pas width * height valeurs
      */
     public PGM(int width, int height, int greyLevel, List<String> values) {
+        this(width, height, greyLevel);
+        if (values.size() != (long) width * height) {
+            throw new IllegalArgumentException("The image must have " + (long) width * height + " pixels, not "
+                    + values.size());
+        }
+        // pixels en clair, élargis aux mots du code si la liste contient une image encodée
+        Pixels pixels = Pixels.create(values.size(), rm.getStartDim());
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i);
+            pixels = pixels.parse(i, value, 0, value.length(), rm.getEndDim());
+        }
+        this.values = pixels;
+    }
+
+    /**
+     * Construit une image PGM sans pixels, ceux-ci sont fixés par l'appelant.
+     *
+     * @param width la largeur
+     * @param height la hauteur
+     * @param greyLevel le niveau de gris
+     */
+    PGM(int width, int height, int greyLevel) {
         this.width = width;
         this.height = height;
         this.greyLevel = greyLevel;
+        this.rm = ReedMuller.of((int) log2(greyLevel) - 1);
+    }
+
+    /**
+     * Construit une image PGM à partir de ses pixels déjà convertis.
+     *
+     * @param width la largeur
+     * @param height la hauteur
+     * @param greyLevel le niveau de gris
+     * @param values les pixels
+     */
+    private PGM(int width, int height, int greyLevel, Pixels values) {
+        this(width, height, greyLevel);
+        this.values = values;
+    }
+
+    /**
+     * Retourne la largeur de l'image.
+     *
+     * @return la largeur
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Retourne la hauteur de l'image.
+     *
+     * @return la hauteur
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Retourne le niveau de gris max de l'image.
+     *
+     * @return le niveau de gris
+     */
+    public int getGreyLevel() {
+        return greyLevel;
+    }
+
+    /**
+     * Retourne l'ordre r du code de ReedMuller associé au niveau de gris.
+     *
+     * @return r, la taille des pixels en clair étant r + 1 bits
+     */
+    public int getOrder() {
+        return rm.getR();
+    }
+
+    /**
+     * Retourne le code de ReedMuller associé au niveau de gris.
+     *
+     * @return le code
+     */
+    ReedMuller getCode() {
+        return rm;
+    }
+
+    Pixels getPixels() {
+        return values;
+    }
+
+    int getFirstRow() {
+        return firstRow;
+    }
+
+    void setFirstRow(int firstRow) {
+        this.firstRow = firstRow;
+    }
+
+    void setPixels(Pixels values) {
+        if (values.size() != width * height) {
+            throw new IllegalArgumentException("The image must have " + width * height + " pixels");
+        }
         this.values = values;
-        this.rm = new ReedMuller((int) log2(greyLevel) - 1);
     }
 
     @Override
     public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            values.format(i, sb);
+        }
         return "PGM{" +
                 "width=" + width +
                 ", height=" + height +
                 ", greyLevel=" + greyLevel +
-                ", values=" + values +
+                ", values=" + sb.append(']') +
                 '}';
     }
 
+    /**
+     * Charge les événements JFR si l'API jdk.jfr est présente et qu'ils ne
+     * sont pas désactivés par -Dimages.jfr=false.
+     *
+     * @return les événements JFR ou null
+     */
+    private static ImageEvents loadEvents() {
+        if (!Boolean.parseBoolean(System.getProperty("images.jfr", "true"))) {
+            return null;
+        }
+        try {
+            return (ImageEvents) Class.forName("images.JfrImageEvents").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Exécute une opération sur l'image en mesurant sa durée pour les
+     * métriques du codec et, si JFR l'enregistre, dans un événement.
+     *
+     * @param operation le nom de l'opération
+     * @param body l'opération
+     * @return l'image résultat
+     */
+    private PGM timed(String operation, Supplier<PGM> body) {
+        Object event = EVENTS == null ? null : EVENTS.begin();
+        long start = System.nanoTime();
+        PGM result = body.get();
+        CodecMetrics.operation(operation, System.nanoTime() - start);
+        if (event != null) {
+            EVENTS.commit(event, operation, width, height, rm.getR());
+        }
+        return result;
+    }
+
+    /**
+     * Fixe le nombre de threads utilisés par les opérations sur les images.
+     * Par défaut, le pool commun de fork/join est utilisé. Un seul pool est
+     * créé par nombre de threads, puis réutilisé : changer souvent de
+     * parallélisme ne crée pas de threads en plus. Les pools ne sont jamais
+     * arrêtés, les opérations en cours, ou qui viennent de lire l'ancien pool,
+     * s'y terminent donc normalement.
+     *
+     * @param parallelism le nombre de threads (1 pour un traitement séquentiel)
+     */
+    public static void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be 1 or greater");
+        }
+        pool = POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+    }
+
+    static ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Applique une opération à tous les blocs de pixels de l'image, en parallèle.
+     *
+     * @param operation l'opération à appliquer
+     */
+    private void forEachChunk(PixelTask.ChunkOperation operation) {
+        pool.invoke(new PixelTask(operation, values.size(), 0, PixelTask.chunks(values.size())));
+    }
+
+    /**
+     * Crée un pipeline d'opérations sur cette image, exécutées ensemble
+     * bloc par bloc sans image intermédiaire (voir {@link Pipeline}).
+     *
+     * @return un pipeline vide
+     */
+    public Pipeline pipeline() {
+        return new Pipeline(this);
+    }
+
+    /**
+     * Applique les étapes d'un pipeline à chaque bloc de pixels : le bloc est
+     * lu une fois dans un tableau primitif, transformé sur place par toutes
+     * les étapes puis écrit. Chaque résultat est rangé à l'indice de son
+     * pixel, l'ordre ne dépend donc pas des threads. Les mots de plus de
+     * 64 bits passent par des {@link Word}, un à un. Le résultat est stocké
+     * pour la taille des valeurs de la dernière étape.
+     *
+     * @param operation le nom de l'opération, pour les métriques
+     * @param stages les étapes
+     * @return la nouvelle image
+     */
+    PGM run(String operation, List<Pipeline.Stage> stages) {
+        return timed(operation, () -> {
+            // messages après un décodage, mots du code sinon
+            Pixels result = Pixels.create(values.size(), stages.get(stages.size() - 1).outSize);
+            forEachChunk((chunk, from, to) -> {
+                if (rm.getEndDim() <= Long.SIZE) {
+                    long[] words = new long[to - from];
+                    int[] messages = new int[words.length];
+                    values.read(from, words);
+                    for (Pipeline.Stage stage : stages) {
+                        stage.narrow.apply(chunk).apply(words, messages);
+                    }
+                    result.write(from, words);
+                }
+                else {
+                    List<UnaryOperator<Word>> operations = new ArrayList<>(stages.size());
+                    for (Pipeline.Stage stage : stages) {
+                        operations.add(stage.wide.apply(chunk));
+                    }
+                    for (int i = from; i < to; i++) {
+                        Word word = values.word(i, stages.get(0).inSize);
+                        for (UnaryOperator<Word> op : operations) {
+                            word = op.apply(word);
+                        }
+                        result.word(i, word);
+                    }
+                }
+            });
+            PGM image = new PGM(width, height, greyLevel, result);
+            image.firstRow = firstRow;
+            return image;
+        });
+    }
+
     /**
      * Encode une image PGM avec l'algo de ReedMuller.
      *
      * @return l'image encodée
      */
     public PGM encode() {
-        List<String> list = new ArrayList<>(values.size());
-        for (String n : values) {
-            Word bigIntToWord = bigIntToWord(new BigInteger(n), rm.getStartDim());
-            Word encoded = rm.encode(bigIntToWord);
-            list.add(wordToBigInt(encoded).toString());
-        }
-        return new PGM(width, height, greyLevel, list);
+        return pipeline().encode().apply();
     }
 
     /**
@@ -73,13 +308,7 @@ public class PGM {
      * @return l'image décodée
      */
     public PGM decode() {
-        List<String> list = new ArrayList<>(values.size());
-        for (String n : values) {
-            Word bigIntToWord = bigIntToWord(new BigInteger(n), rm.getEndDim());
-            Word decoded = rm.decode(bigIntToWord);
-            list.add(wordToBigInt(decoded).toString());
-        }
-        return new PGM(width, height, greyLevel, list);
+        return pipeline().decode().apply();
     }
 
     /**
@@ -89,13 +318,21 @@ public class PGM {
      * @return l'image bruitée
      */
     public PGM noise(double probability) {
-        List<String> list = new ArrayList<>(values.size());
-        for (String n : values) {
-            Word bigIntToWord = bigIntToWord(new BigInteger(n), rm.getEndDim());
-            Word noised = rm.noise(bigIntToWord, probability);
-            list.add(wordToBigInt(noised).toString());
-        }
-        return new PGM(width, height, greyLevel, list);
+        return pipeline().noise(probability).apply();
+    }
+
+    /**
+     * Bruite une image PGM selon une certaine probabilité. Chaque bloc de
+     * pixels passe par son propre canal, dont le générateur est dérivé de la
+     * graine, le résultat est donc le même pour une graine donnée quel que
+     * soit le parallélisme.
+     *
+     * @param probability la probabilité
+     * @param seed la graine
+     * @return l'image bruitée
+     */
+    public PGM noise(double probability, long seed) {
+        return pipeline().noise(probability, seed).apply();
     }
 
     /**
@@ -104,13 +341,7 @@ public class PGM {
      * @return l'image débruitée
      */
     public PGM denoise() {
-        List<String> list = new ArrayList<>(values.size());
-        for (String n : values) {
-            Word bigIntToWord = bigIntToWord(new BigInteger(n), rm.getEndDim());
-            Word denoised = rm.semiExhaustiveSearch(bigIntToWord);
-            list.add(wordToBigInt(denoised).toString());
-        }
-        return new PGM(width, height, greyLevel, list);
+        return pipeline().denoise().apply();
     }
 
     /**
@@ -119,17 +350,12 @@ public class PGM {
      * @return l'image débruitée et décodée
      */
     public PGM denoiseAndDecode() {
-        List<String> list = new ArrayList<>(values.size());
-        for (String n : values) {
-            Word bigIntToWord = bigIntToWord(new BigInteger(n), rm.getEndDim());
-            Word denoised = rm.fastSearch(bigIntToWord);
-            list.add(wordToBigInt(denoised).toString());
-        }
-        return new PGM(width, height, greyLevel, list);
+        return pipeline().denoiseAndDecode().apply();
     }
 
     /**
-     * Construit une image PGM à partir d'un fichier.
+     * Construit une image PGM à partir d'un fichier, au format texte (P2)
+     * ou binaire (P5).
      *
      * @param filename le nom du fichier
      * @return une image PGM
@@ -137,49 +363,9 @@ public class PGM {
      * @throws IllegalArgumentException si le fichier n'est pas conforme
      */
     public static PGM read(String filename) throws IOException, IllegalArgumentException {
-        PGM pgm;
-        int width = 0;
-        int height = 0;
-        int greyLevel = 0;
-        List<String> list = new ArrayList<>();
-        int i = 1;
-        StringTokenizer st;
-        BufferedReader br = new BufferedReader(new FileReader(filename));
-        String line;
-        while ((line = br.readLine()) != null) {
-            switch (i) {
-                case 1:
-                    if (!line.equals(CODE)) {
-                        throw new IllegalArgumentException("The file is not a PGM file");
-                    }
-                    break;
-                case 2:
-                    break;
-                case 3:
-                    st = new StringTokenizer(line);
-                    width = Integer.parseInt(st.nextToken());
-                    height = Integer.parseInt(st.nextToken());
-                    break;
-                case 4:
-                    greyLevel = Integer.parseInt(line);
-                    break;
-                default:
-                    st = new StringTokenizer(line);
-                    while (st.hasMoreElements()) {
-                        list.add(st.nextToken());
-                    }
-                    break;
-            }
-            i++;
+        try (PGMReader reader = new PGMReader(filename)) {
+            return reader.readRows(reader.getHeight());
         }
-        br.close();
-        pgm = new PGM(width, height, greyLevel, list);
-        return pgm;
-    }
-
-    private static void writeAndNewLine(BufferedWriter bw, String str) throws IOException {
-        bw.write(str);
-        bw.newLine();
     }
 
     /**
@@ -190,14 +376,138 @@ public class PGM {
      * @throws IOException si le fichier pas trouvé par exemple
      */
     public static void write(PGM image, String filename) throws IOException {
-        BufferedWriter bw = new BufferedWriter(new FileWriter(filename));
-        writeAndNewLine(bw, CODE);
-        writeAndNewLine(bw, "# Generated with Java master race");
-        writeAndNewLine(bw, image.width + " " + image.height);
-        writeAndNewLine(bw, Integer.toString(image.greyLevel));
-        for (String v : image.values) {
-            bw.write(v + " ");
+        write(image, filename, false);
+    }
+
+    /**
+     * Écris une image PGM sur le disque, au format texte (P2) ou binaire (P5).
+     * Le format binaire ne peut contenir que des valeurs jusqu'au niveau de
+     * gris, donc pas d'image encodée.
+     *
+     * @param image l'image PGM
+     * @param filename le nom du fichier
+     * @param binary vrai pour le format binaire
+     * @throws IOException si le fichier pas trouvé par exemple
+     */
+    public static void write(PGM image, String filename, boolean binary) throws IOException {
+        try (PGMWriter writer = new PGMWriter(filename, image.width, image.height, image.greyLevel, binary)) {
+            writer.write(image);
+        }
+    }
+
+    /**
+     * Lit une image encodée au format binaire compact (voir {@link PackedReader}).
+     *
+     * @param filename le nom du fichier
+     * @return une image PGM
+     * @throws IOException si le fichier pas trouvé par exemple
+     * @throws IllegalArgumentException si le fichier n'est pas conforme
+     */
+    public static PGM readPacked(String filename) throws IOException, IllegalArgumentException {
+        try (PackedReader reader = new PackedReader(filename)) {
+            return reader.readRows(reader.getHeight());
+        }
+    }
+
+    /**
+     * Écris une image encodée au format binaire compact (voir {@link PackedWriter}).
+     *
+     * @param image l'image PGM
+     * @param filename le nom du fichier
+     * @throws IOException si le fichier pas trouvé par exemple
+     */
+    public static void writePacked(PGM image, String filename) throws IOException {
+        try (PackedWriter writer = new PackedWriter(filename, image.width, image.height, image.greyLevel)) {
+            writer.write(image);
+        }
+    }
+
+    /**
+     * Convertit une image PGM (par exemple encodée en ASCII) au format
+     * binaire compact, par blocs de lignes.
+     *
+     * @param input le nom du fichier PGM
+     * @param output le nom du fichier compact
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     * @throws IllegalArgumentException si le fichier n'est pas conforme
+     */
+    public static void pack(String input, String output) throws IOException, IllegalArgumentException {
+        try (PGMReader reader = new PGMReader(input);
+             PackedWriter writer = new PackedWriter(output, reader.getWidth(), reader.getHeight(),
+                     reader.getGreyLevel())) {
+            while (reader.hasMoreRows()) {
+                writer.write(reader.readRows(BLOCK_ROWS));
+            }
+        }
+    }
+
+    /**
+     * Traite une image PGM par blocs de lignes, sans la charger entièrement :
+     * chaque bloc est lu, transformé puis écrit avant de lire le suivant.
+     * Exemple : {@code process("in.pgm", "out.pgm", 64, b -> b.encode().noise(0.05))}.
+     *
+     * @param input le nom du fichier à lire
+     * @param output le nom du fichier à écrire
+     * @param rows le nombre de lignes par bloc
+     * @param operation l'opération appliquée à chaque bloc
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     * @throws IllegalArgumentException si le fichier n'est pas conforme
+     */
+    public static void process(String input, String output, int rows, UnaryOperator<PGM> operation)
+            throws IOException, IllegalArgumentException {
+        process(input, output, rows, operation, false);
+    }
+
+    /**
+     * Traite une image PGM par blocs de lignes, voir
+     * {@link #process(String, String, int, UnaryOperator)}, en écrivant
+     * le résultat au format texte (P2) ou binaire (P5).
+     *
+     * @param input le nom du fichier à lire
+     * @param output le nom du fichier à écrire
+     * @param rows le nombre de lignes par bloc
+     * @param operation l'opération appliquée à chaque bloc
+     * @param binary vrai pour écrire au format binaire
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     * @throws IllegalArgumentException si le fichier n'est pas conforme
+     */
+    public static void process(String input, String output, int rows, UnaryOperator<PGM> operation, boolean binary)
+            throws IOException, IllegalArgumentException {
+        try (PGMReader reader = new PGMReader(input);
+             PGMWriter writer = new PGMWriter(output, reader.getWidth(), reader.getHeight(),
+                     reader.getGreyLevel(), binary)) {
+            while (reader.hasMoreRows()) {
+                writer.write(operation.apply(reader.readRows(rows)));
+            }
+        }
+    }
+
+    /**
+     * Traite une image PGM par blocs de lignes, voir
+     * {@link #process(String, String, int, UnaryOperator, boolean)}, en
+     * recouvrant lecture, calcul et écriture : un thread lit les blocs,
+     * threads threads leur appliquent l'opération et le thread appelant les
+     * écrit dans l'ordre (voir {@link OrderedProcess}). Le nombre de blocs
+     * en mémoire est limité à deux par thread de calcul. Le bruit à graine
+     * fixée d'un bloc dépend aussi de sa première ligne (voir
+     * {@link Pipeline#noise(double, long)}), le résultat ne dépend donc que
+     * de la graine et du nombre de lignes par bloc.
+     *
+     * @param input le nom du fichier à lire
+     * @param output le nom du fichier à écrire
+     * @param rows le nombre de lignes par bloc
+     * @param operation l'opération appliquée à chaque bloc, depuis plusieurs threads
+     * @param binary vrai pour écrire au format binaire
+     * @param threads le nombre de threads de calcul
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     * @throws IllegalArgumentException si le fichier n'est pas conforme
+     */
+    public static void process(String input, String output, int rows, UnaryOperator<PGM> operation, boolean binary,
+                               int threads) throws IOException, IllegalArgumentException {
+        try (PGMReader reader = new PGMReader(input);
+             PGMWriter writer = new PGMWriter(output, reader.getWidth(), reader.getHeight(),
+                     reader.getGreyLevel(), binary)) {
+            OrderedProcess.run(reader, writer, rows, operation, threads);
         }
-        bw.close();
     }
 }
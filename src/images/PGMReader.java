@@ -0,0 +1,234 @@
+package images;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lecteur d'image PGM par blocs de lignes, au format texte (P2) ou binaire
+ * (P5, un ou deux octets par pixel selon le niveau de gris). L'en-tête est
+ * lu à l'ouverture, les pixels ensuite au fur et à mesure, la mémoire
+ * utilisée ne dépend donc que de la taille des blocs et pas de celle de l'image.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+public class PGMReader implements Closeable {
+    static final String CODE = "P2";
+    static final String BINARY_CODE = "P5";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel in;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final StringBuilder token = new StringBuilder();
+
+    private final boolean binary;
+    private final int width;
+    private final int height;
+    private final int greyLevel;
+    private int rowsRead;
+
+    /**
+     * Ouvre une image PGM et lit son en-tête.
+     *
+     * @param filename le nom du fichier
+     * @throws IOException si le fichier pas trouvé par exemple
+     * @throws IllegalArgumentException si l'en-tête n'est pas conforme
+     */
+    public PGMReader(String filename) throws IOException, IllegalArgumentException {
+        in = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        buffer.limit(0);
+        try {
+            if (!nextToken() || !(CODE.contentEquals(token) || BINARY_CODE.contentEquals(token))) {
+                throw new IllegalArgumentException("The file is not a PGM file");
+            }
+            binary = BINARY_CODE.contentEquals(token);
+            width = nextInt();
+            height = nextInt();
+            // nextToken consomme l'unique espace qui sépare le niveau de gris des données binaires
+            greyLevel = nextInt();
+            if (binary && (greyLevel < 1 || greyLevel > 0xFFFF)) {
+                throw new IllegalArgumentException("The grey level of a binary PGM must be between 1 and 65535");
+            }
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Retourne la largeur de l'image.
+     *
+     * @return la largeur
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Retourne la hauteur de l'image.
+     *
+     * @return la hauteur
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Retourne le niveau de gris max de l'image.
+     *
+     * @return le niveau de gris
+     */
+    public int getGreyLevel() {
+        return greyLevel;
+    }
+
+    /**
+     * Indique si l'image est au format binaire (P5).
+     *
+     * @return vrai pour le format P5, faux pour P2
+     */
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * Indique s'il reste des lignes à lire.
+     *
+     * @return vrai s'il reste des lignes
+     */
+    public boolean hasMoreRows() {
+        return rowsRead < height;
+    }
+
+    /**
+     * Lit les prochaines lignes de l'image, au plus rows.
+     *
+     * @param rows le nombre maximal de lignes
+     * @return un bloc de l'image, sous forme d'image PGM de même largeur
+     * @throws IOException en cas d'erreur de lecture
+     * @throws IllegalArgumentException s'il manque des pixels ou qu'ils dépassent le niveau de gris (P5)
+     */
+    public PGM readRows(int rows) throws IOException, IllegalArgumentException {
+        if (rows < 0) {
+            throw new IllegalArgumentException("rows must be 0 or greater");
+        }
+        rows = Math.min(rows, height - rowsRead);
+        PGM block = new PGM(width, rows, greyLevel);
+        // pixels en clair ; une image P2 encodée élargit le stockage aux mots du code
+        Pixels values = Pixels.create(width * rows, block.getCode().getStartDim());
+        if (binary) {
+            readBinary(values);
+        }
+        else {
+            int codeBits = block.getCode().getEndDim();
+            for (int i = 0; i < values.size(); i++) {
+                if (!nextToken()) {
+                    throw missingPixels(i);
+                }
+                values = values.parse(i, token, 0, token.length(), codeBits);
+            }
+        }
+        block.setPixels(values);
+        block.setFirstRow(rowsRead);
+        rowsRead += rows;
+        return block;
+    }
+
+    /**
+     * Lit les pixels binaires (octets de poids fort en premier sur 16 bits)
+     * directement depuis le tampon.
+     *
+     * @param values le stockage à remplir, de la taille des pixels en clair
+     * @throws IOException en cas d'erreur de lecture
+     * @throws IllegalArgumentException si un pixel dépasse le niveau de gris
+     */
+    private void readBinary(Pixels values) throws IOException {
+        int bytes = greyLevel < 0x100 ? 1 : 2;
+        int i = 0;
+        while (i < values.size()) {
+            if (buffer.remaining() < bytes && !fill()) {
+                throw missingPixels(i);
+            }
+            int available = Math.min(values.size() - i, buffer.remaining() / bytes);
+            for (int end = i + available; i < end; i++) {
+                int value = bytes == 1 ? buffer.get() & 0xFF : buffer.getShort() & 0xFFFF;
+                if (value > greyLevel) {
+                    throw new IllegalArgumentException("The pixel " + ((long) rowsRead * width + i) + " ("
+                            + value + ") exceeds the grey level " + greyLevel);
+                }
+                values.set(i, value);
+            }
+        }
+    }
+
+    private IllegalArgumentException missingPixels(int read) {
+        return new IllegalArgumentException("The file has only "
+                + ((long) rowsRead * width + read) + " pixels instead of " + (long) width * height);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Complète le tampon avec la suite du fichier, en gardant les octets non lus.
+     *
+     * @return faux si la fin du fichier est atteinte sans rien lire
+     * @throws IOException en cas d'erreur de lecture
+     */
+    private boolean fill() throws IOException {
+        buffer.compact();
+        int read = in.read(buffer);
+        buffer.flip();
+        return read > 0;
+    }
+
+    private int read() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Lit le prochain mot (suite de caractères sans espace) dans token,
+     * en sautant les commentaires (de # à la fin de la ligne).
+     *
+     * @return faux si la fin du fichier est atteinte
+     * @throws IOException en cas d'erreur de lecture
+     */
+    private boolean nextToken() throws IOException {
+        token.setLength(0);
+        int c = read();
+        while (c != -1 && (Character.isWhitespace(c) || c == '#')) {
+            if (c == '#') {
+                while (c != -1 && c != '\n' && c != '\r') {
+                    c = read();
+                }
+            }
+            c = read();
+        }
+        while (c != -1 && !Character.isWhitespace(c) && c != '#') {
+            token.append((char) c);
+            c = read();
+        }
+        // un commentaire collé au mot le termine
+        if (c == '#') {
+            while (c != -1 && c != '\n' && c != '\r') {
+                c = read();
+            }
+        }
+        return token.length() > 0;
+    }
+
+    private int nextInt() throws IOException {
+        if (!nextToken()) {
+            throw new IllegalArgumentException("The PGM header is incomplete");
+        }
+        return Integer.parseInt(token.toString());
+    }
+}
@@ -0,0 +1,177 @@
+package images;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Écrivain d'image PGM par blocs de lignes, au format texte (P2) ou binaire
+ * (P5). L'en-tête est écrit à l'ouverture, les blocs sont ensuite ajoutés
+ * au fur et à mesure.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+public class PGMWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel out;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final StringBuilder sb = new StringBuilder();
+    private final boolean binary;
+    private final int width;
+    private final int height;
+    private final int greyLevel;
+    private int rowsWritten;
+
+    /**
+     * Crée une image PGM au format texte (P2) et écrit son en-tête.
+     *
+     * @param filename le nom du fichier
+     * @param width la largeur
+     * @param height la hauteur
+     * @param greyLevel le niveau de gris
+     * @throws IOException si le fichier ne peut être créé par exemple
+     */
+    public PGMWriter(String filename, int width, int height, int greyLevel) throws IOException {
+        this(filename, width, height, greyLevel, false);
+    }
+
+    /**
+     * Crée une image PGM et écrit son en-tête.
+     *
+     * @param filename le nom du fichier
+     * @param width la largeur
+     * @param height la hauteur
+     * @param greyLevel le niveau de gris
+     * @param binary vrai pour le format binaire (P5), faux pour le format texte (P2)
+     * @throws IOException si le fichier ne peut être créé par exemple
+     */
+    public PGMWriter(String filename, int width, int height, int greyLevel, boolean binary) throws IOException {
+        if (binary && (greyLevel < 1 || greyLevel > 0xFFFF)) {
+            throw new IllegalArgumentException("The grey level of a binary PGM must be between 1 and 65535");
+        }
+        this.width = width;
+        this.height = height;
+        this.greyLevel = greyLevel;
+        this.binary = binary;
+        out = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            writeAndNewLine(binary ? PGMReader.BINARY_CODE : PGMReader.CODE);
+            writeAndNewLine("# Generated with Java master race");
+            writeAndNewLine(width + " " + height);
+            // en binaire, un seul caractère d'espacement avant les données
+            writeAndNewLine(Integer.toString(greyLevel));
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    private void writeAndNewLine(String str) throws IOException {
+        sb.append(str).append('\n');
+        flushText();
+    }
+
+    /**
+     * Copie le texte en attente dans le tampon d'écriture.
+     */
+    private void flushText() throws IOException {
+        for (int i = 0; i < sb.length(); i++) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            buffer.put((byte) sb.charAt(i));
+        }
+        sb.setLength(0);
+    }
+
+    /**
+     * Écrit le contenu du tampon dans le fichier et le vide.
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Ajoute un bloc de lignes à l'image.
+     *
+     * @param block le bloc, de même largeur et niveau de gris que l'image
+     * @throws IOException en cas d'erreur d'écriture
+     * @throws IllegalArgumentException si le bloc ne correspond pas à l'image
+     */
+    public void write(PGM block) throws IOException, IllegalArgumentException {
+        if (block.getWidth() != width || block.getGreyLevel() != greyLevel) {
+            throw new IllegalArgumentException("The block's width and grey level must be "
+                    + width + " and " + greyLevel);
+        }
+        if (rowsWritten + block.getHeight() > height) {
+            throw new IllegalArgumentException("The image has only " + height + " rows");
+        }
+        Pixels values = block.getPixels();
+        if (binary) {
+            writeBinary(values);
+        }
+        else {
+            for (int i = 0; i < values.size(); i++) {
+                values.format(i, sb);
+                sb.append(' ');
+                if (sb.length() >= BUFFER_SIZE) {
+                    flushText();
+                }
+            }
+            flushText();
+        }
+        rowsWritten += block.getHeight();
+    }
+
+    /**
+     * Écrit les pixels en binaire, sur un octet ou deux (poids fort en premier).
+     *
+     * @param values les pixels
+     * @throws IllegalArgumentException si un pixel dépasse le niveau de gris (image encodée)
+     */
+    private void writeBinary(Pixels values) throws IOException {
+        int bytes = greyLevel < 0x100 ? 1 : 2;
+        for (int i = 0; i < values.size(); i++) {
+            if (values.exceeds(i, greyLevel)) {
+                throw new IllegalArgumentException("A binary PGM can't hold values above its grey level ("
+                        + greyLevel + "), encoded images must be written in another format");
+            }
+            if (buffer.remaining() < bytes) {
+                drain();
+            }
+            if (bytes == 1) {
+                buffer.put((byte) values.get(i));
+            }
+            else {
+                buffer.putShort((short) values.get(i));
+            }
+        }
+    }
+
+    /**
+     * Termine l'image et ferme le fichier.
+     *
+     * @throws IOException en cas d'erreur d'écriture ou s'il manque des lignes
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flushText();
+            drain();
+        } finally {
+            out.close();
+        }
+        if (rowsWritten != height) {
+            throw new IOException("Only " + rowsWritten + " rows of " + height + " were written");
+        }
+    }
+}
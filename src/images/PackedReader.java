@@ -0,0 +1,141 @@
+package images;
+
+import reedmuller.BitReader;
+import reedmuller.Word;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lecteur d'image encodée au format binaire compact, par blocs de lignes.
+ * En-tête (entiers de 32 bits, octet de poids faible en premier) : "RMPK",
+ * largeur, hauteur, niveau de gris, r. Suivent les mots de 2^r bits de
+ * chaque pixel, mis bout à bout (voir {@link PackedWriter}) et relus par un
+ * {@link BitReader}. Les mots ayant tous la même taille, un rectangle de
+ * l'image peut aussi être lu sans parcourir le fichier (voir {@link TileReader}).
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+public class PackedReader implements Closeable {
+    // "RMPK" lu en little-endian
+    static final int MAGIC = 'R' | 'M' << 8 | 'P' << 16 | 'K' << 24;
+    private static final int HEADER_SIZE = 5 * Integer.BYTES;
+
+    private final FileChannel in;
+    private final BitReader reader;
+    private final int width;
+    private final int height;
+    private final int greyLevel;
+    private final int bits;
+    private int rowsRead;
+
+    /**
+     * Ouvre une image au format compact et lit son en-tête.
+     *
+     * @param filename le nom du fichier
+     * @throws IOException si le fichier pas trouvé par exemple
+     * @throws IllegalArgumentException si l'en-tête n'est pas conforme ou le fichier tronqué
+     */
+    public PackedReader(String filename) throws IOException, IllegalArgumentException {
+        in = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        reader = new BitReader(in);
+        try {
+            if (in.size() < HEADER_SIZE || (int) reader.getBits(Integer.SIZE) != MAGIC) {
+                throw new IllegalArgumentException("The file is not a packed encoded image");
+            }
+            width = (int) reader.getBits(Integer.SIZE);
+            height = (int) reader.getBits(Integer.SIZE);
+            greyLevel = (int) reader.getBits(Integer.SIZE);
+            int r = (int) reader.getBits(Integer.SIZE);
+            PGM empty = new PGM(width, 0, greyLevel);
+            if (empty.getCode().getR() != r) {
+                throw new IllegalArgumentException("The order " + r + " doesn't match the grey level " + greyLevel);
+            }
+            bits = empty.getCode().getEndDim();
+            long dataBits = (long) width * height * bits;
+            if (in.size() < HEADER_SIZE + (dataBits + Byte.SIZE - 1) / Byte.SIZE) {
+                throw new IllegalArgumentException("The file is truncated");
+            }
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Retourne la largeur de l'image.
+     *
+     * @return la largeur
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Retourne la hauteur de l'image.
+     *
+     * @return la hauteur
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Retourne le niveau de gris max de l'image.
+     *
+     * @return le niveau de gris
+     */
+    public int getGreyLevel() {
+        return greyLevel;
+    }
+
+    /**
+     * Indique s'il reste des lignes à lire.
+     *
+     * @return vrai s'il reste des lignes
+     */
+    public boolean hasMoreRows() {
+        return rowsRead < height;
+    }
+
+    /**
+     * Lit les prochaines lignes de l'image, au plus rows.
+     *
+     * @param rows le nombre maximal de lignes
+     * @return un bloc de l'image, sous forme d'image PGM de même largeur
+     * @throws IOException en cas d'erreur de lecture
+     * @throws IllegalArgumentException si le fichier est tronqué
+     */
+    public PGM readRows(int rows) throws IOException, IllegalArgumentException {
+        if (rows < 0) {
+            throw new IllegalArgumentException("rows must be 0 or greater");
+        }
+        rows = Math.min(rows, height - rowsRead);
+        PGM block = new PGM(width, rows, greyLevel);
+        Pixels values = Pixels.create(width * rows, bits);
+        if (values.isNarrow()) {
+            for (int i = 0; i < values.size(); i++) {
+                values.set(i, reader.getBits(bits));
+            }
+        }
+        else {
+            long[] longs = new long[bits / Long.SIZE];
+            for (int i = 0; i < values.size(); i++) {
+                reader.getWords(longs, longs.length, Long.SIZE);
+                values.word(i, Word.fromLongs(longs, 0, bits));
+            }
+        }
+        block.setPixels(values);
+        block.setFirstRow(rowsRead);
+        rowsRead += rows;
+        return block;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
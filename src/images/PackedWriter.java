@@ -0,0 +1,105 @@
+package images;
+
+import reedmuller.BitWriter;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Écrivain d'image encodée au format binaire compact, par blocs de lignes.
+ * Le fichier contient un en-tête (voir {@link PackedReader}) suivi des
+ * mots de 2^r bits de chaque pixel, mis bout à bout par {@link BitWriter} :
+ * le bit j du flux est le bit j % 8 de l'octet j / 8.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+public class PackedWriter implements Closeable {
+    private final FileChannel out;
+    private final BitWriter writer;
+    private final int width;
+    private final int height;
+    private final int greyLevel;
+    private final int bits;
+    private int rowsWritten;
+
+    /**
+     * Crée une image au format compact et écrit son en-tête.
+     *
+     * @param filename le nom du fichier
+     * @param width la largeur
+     * @param height la hauteur
+     * @param greyLevel le niveau de gris
+     * @throws IOException si le fichier ne peut être créé par exemple
+     */
+    public PackedWriter(String filename, int width, int height, int greyLevel) throws IOException {
+        this.width = width;
+        this.height = height;
+        this.greyLevel = greyLevel;
+        PGM empty = new PGM(width, 0, greyLevel);
+        bits = empty.getCode().getEndDim();
+        out = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        writer = new BitWriter(out);
+        try {
+            writer.putBits(PackedReader.MAGIC & 0xFFFFFFFFL, Integer.SIZE);
+            writer.putBits(width, Integer.SIZE);
+            writer.putBits(height, Integer.SIZE);
+            writer.putBits(greyLevel, Integer.SIZE);
+            writer.putBits(empty.getCode().getR(), Integer.SIZE);
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Ajoute un bloc de lignes à l'image.
+     *
+     * @param block le bloc, de même largeur et niveau de gris que l'image
+     * @throws IOException en cas d'erreur d'écriture
+     * @throws IllegalArgumentException si le bloc ne correspond pas à l'image
+     */
+    public void write(PGM block) throws IOException, IllegalArgumentException {
+        if (block.getWidth() != width || block.getGreyLevel() != greyLevel) {
+            throw new IllegalArgumentException("The block's width and grey level must be "
+                    + width + " and " + greyLevel);
+        }
+        if (rowsWritten + block.getHeight() > height) {
+            throw new IllegalArgumentException("The image has only " + height + " rows");
+        }
+        Pixels values = block.getPixels();
+        if (bits <= Long.SIZE) {
+            for (int i = 0; i < values.size(); i++) {
+                writer.putBits(values.get(i), bits);
+            }
+        }
+        else {
+            long[] longs = new long[bits / Long.SIZE];
+            for (int i = 0; i < values.size(); i++) {
+                values.word(i, bits).toLongs(longs, 0);
+                writer.putWords(longs, longs.length, Long.SIZE);
+            }
+        }
+        rowsWritten += block.getHeight();
+    }
+
+    /**
+     * Termine l'image (derniers bits complétés par des 0 jusqu'à l'octet) et ferme le fichier.
+     *
+     * @throws IOException en cas d'erreur d'écriture ou s'il manque des lignes
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writer.finish();
+        } finally {
+            out.close();
+        }
+        if (rowsWritten != height) {
+            throw new IOException("Only " + rowsWritten + " rows of " + height + " were written");
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package images;
+
+import reedmuller.BinarySymmetricChannel;
+import reedmuller.ReedMuller;
+import reedmuller.Word;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Enchaînement d'opérations sur une image, exécutées ensemble bloc par bloc.
+ * Chaque bloc de pixels (quelques milliers, voir {@link PixelTask}) est lu
+ * une fois dans un tableau primitif, passe par toutes les étapes sur place
+ * puis est écrit dans l'image résultat : aucune image intermédiaire n'est
+ * créée, la mémoire parcourue ne dépend donc pas du nombre d'étapes.
+ * Exemple : {@code image.pipeline().encode().noise(0.05).denoiseAndDecode().apply()}.
+ * Le résultat est le même qu'en enchaînant les opérations de {@link PGM}
+ * (pour le bruit, à graine égale).
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+public class Pipeline {
+    // écart entre les graines de deux lignes (partie fractionnaire du nombre d'or sur 64 bits)
+    private static final long ROW_SEED_STEP = 0x9E3779B97F4A7C15L;
+
+    private final PGM image;
+    private final ReedMuller rm;
+    private final List<Stage> stages = new ArrayList<>();
+
+    /**
+     * Opération d'une étape sur un bloc de mots tenant dans des long.
+     */
+    interface Block {
+        /**
+         * @param words les mots du bloc, modifiés sur place
+         * @param messages un tableau de travail de même taille
+         */
+        void apply(long[] words, int[] messages);
+    }
+
+    /**
+     * Une étape du pipeline, préparée pour chaque bloc de pixels (pour le
+     * bruit, avec le canal propre au bloc).
+     */
+    static final class Stage {
+        final String name;
+        // taille des mots en entrée et en sortie de l'étape
+        final int inSize;
+        final int outSize;
+        final IntFunction<Block> narrow;
+        final IntFunction<UnaryOperator<Word>> wide;
+
+        Stage(String name, int inSize, int outSize, IntFunction<Block> narrow,
+              IntFunction<UnaryOperator<Word>> wide) {
+            this.name = name;
+            this.inSize = inSize;
+            this.outSize = outSize;
+            this.narrow = narrow;
+            this.wide = wide;
+        }
+    }
+
+    Pipeline(PGM image) {
+        this.image = image;
+        this.rm = image.getCode();
+    }
+
+    private Pipeline add(String name, int inSize, int outSize, IntFunction<Block> narrow,
+                         IntFunction<UnaryOperator<Word>> wide) {
+        stages.add(new Stage(name, inSize, outSize, narrow, wide));
+        return this;
+    }
+
+    /**
+     * Ajoute l'encodage des pixels.
+     *
+     * @return ce pipeline
+     */
+    public Pipeline encode() {
+        return add("encode", rm.getStartDim(), rm.getEndDim(), chunk -> (words, messages) -> {
+            long all = 0;
+            for (int i = 0; i < words.length; i++) {
+                all |= words[i];
+                messages[i] = (int) words[i];
+            }
+            // vérifié avant la conversion en int, qui perdrait les bits de poids fort
+            if (all >>> rm.getStartDim() != 0) {
+                throw new IllegalArgumentException("The messages must be between 0 and "
+                        + ((1 << rm.getStartDim()) - 1));
+            }
+            rm.encodeAll(messages, words);
+        }, chunk -> rm::encode);
+    }
+
+    /**
+     * Ajoute le décodage des pixels.
+     *
+     * @return ce pipeline
+     */
+    public Pipeline decode() {
+        return add("decode", rm.getEndDim(), rm.getStartDim(), chunk -> (words, messages) -> {
+            rm.decodeAll(words, messages);
+            widen(messages, words);
+        }, chunk -> rm::decode);
+    }
+
+    /**
+     * Ajoute le bruit, avec une graine aléatoire.
+     *
+     * @param probability la probabilité d'inverser un bit
+     * @return ce pipeline
+     */
+    public Pipeline noise(double probability) {
+        return noise(probability, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Ajoute le bruit. Chaque bloc de pixels passe par son propre canal,
+     * dont le générateur est dérivé de la graine, le résultat est donc le
+     * même pour une graine donnée quel que soit le parallélisme. Pour un bloc
+     * de lignes lu par {@link PGM#process}, la graine est aussi dérivée de sa
+     * première ligne : les blocs reçoivent des bruits différents.
+     *
+     * @param probability la probabilité d'inverser un bit
+     * @param seed la graine
+     * @return ce pipeline
+     */
+    public Pipeline noise(double probability, long seed) {
+        // image entière (première ligne 0) : la graine telle quelle
+        SplittableRandom seeds = new SplittableRandom(seed + image.getFirstRow() * ROW_SEED_STEP);
+        long[] chunkSeeds = new long[PixelTask.chunks(image.getWidth() * image.getHeight())];
+        for (int c = 0; c < chunkSeeds.length; c++) {
+            chunkSeeds[c] = seeds.nextLong();
+        }
+        return add("noise", rm.getEndDim(), rm.getEndDim(), chunk -> {
+            BinarySymmetricChannel channel = new BinarySymmetricChannel(probability, chunkSeeds[chunk]);
+            return (words, messages) -> rm.noiseAll(words, words, channel);
+        }, chunk -> {
+            BinarySymmetricChannel channel = new BinarySymmetricChannel(probability, chunkSeeds[chunk]);
+            return word -> rm.noise(word, channel);
+        });
+    }
+
+    /**
+     * Ajoute le débruitage par recherche semi-exhaustive.
+     *
+     * @return ce pipeline
+     */
+    public Pipeline denoise() {
+        return add("denoise", rm.getEndDim(), rm.getEndDim(),
+                chunk -> (words, messages) -> rm.semiExhaustiveSearchAll(words, words),
+                chunk -> rm::semiExhaustiveSearch);
+    }
+
+    /**
+     * Ajoute le débruitage et le décodage par recherche rapide.
+     *
+     * @return ce pipeline
+     */
+    public Pipeline denoiseAndDecode() {
+        return add("denoiseAndDecode", rm.getEndDim(), rm.getStartDim(), chunk -> (words, messages) -> {
+            rm.fastSearchAll(words, messages);
+            widen(messages, words);
+        }, chunk -> rm::fastSearch);
+    }
+
+    /**
+     * Exécute toutes les étapes en une passe sur l'image.
+     *
+     * @return l'image résultat, l'image d'origine s'il n'y a aucune étape
+     */
+    public PGM apply() {
+        if (stages.isEmpty()) {
+            return image;
+        }
+        StringBuilder name = new StringBuilder();
+        for (Stage stage : stages) {
+            if (name.length() > 0) {
+                name.append('+');
+            }
+            name.append(stage.name);
+        }
+        return image.run(name.toString(), new ArrayList<>(stages));
+    }
+
+    /**
+     * Copie des messages (non signés) dans des long.
+     */
+    private static void widen(int[] messages, long[] words) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = messages[i] & 0xFFFFFFFFL;
+        }
+    }
+}
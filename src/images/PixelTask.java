@@ -0,0 +1,74 @@
+package images;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Tâche fork/join appliquant une opération à des blocs de pixels consécutifs.
+ * Les blocs ont une taille fixe, indépendante du nombre de threads, leur
+ * numéro peut donc servir à dériver un état propre (un générateur aléatoire
+ * par exemple) qui donne le même résultat quel que soit le parallélisme.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class PixelTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    static final int CHUNK_SIZE = 1 << 12;
+
+    /**
+     * Opération appliquée à un bloc de pixels.
+     */
+    interface ChunkOperation {
+        /**
+         * Traite les pixels d'indices from (inclus) à to (exclus).
+         *
+         * @param chunk le numéro du bloc
+         * @param from le premier pixel
+         * @param to le pixel suivant le dernier
+         */
+        void apply(int chunk, int from, int to);
+    }
+
+    private final ChunkOperation operation;
+    private final int size;
+    private final int firstChunk;
+    private final int lastChunk;
+
+    /**
+     * Construit une tâche traitant les blocs firstChunk (inclus) à lastChunk (exclus).
+     *
+     * @param operation l'opération à appliquer
+     * @param size le nombre total de pixels
+     * @param firstChunk le premier bloc
+     * @param lastChunk le bloc suivant le dernier
+     */
+    PixelTask(ChunkOperation operation, int size, int firstChunk, int lastChunk) {
+        this.operation = operation;
+        this.size = size;
+        this.firstChunk = firstChunk;
+        this.lastChunk = lastChunk;
+    }
+
+    /**
+     * Retourne le nombre de blocs pour un nombre de pixels donné.
+     *
+     * @param size le nombre de pixels
+     * @return le nombre de blocs
+     */
+    static int chunks(int size) {
+        return (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    @Override
+    protected void compute() {
+        if (lastChunk - firstChunk == 1) {
+            int from = firstChunk * CHUNK_SIZE;
+            operation.apply(firstChunk, from, Math.min(from + CHUNK_SIZE, size));
+        }
+        else if (lastChunk > firstChunk) {
+            int middle = (firstChunk + lastChunk) >>> 1;
+            invokeAll(new PixelTask(operation, size, firstChunk, middle),
+                    new PixelTask(operation, size, middle, lastChunk));
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package images;
+
+import reedmuller.Word;
+
+import java.math.BigInteger;
+
+import static reedmuller.Word.bigIntToWord;
+import static reedmuller.Word.wordToBigInt;
+
+/**
+ * Valeurs des pixels d'une image, stockées dans un tableau primitif dimensionné
+ * pour les valeurs que l'image contient à ce stade : des pixels en clair ou
+ * décodés (r + 1 bits) ou des mots du code (2^r bits). Un int par pixel si
+ * les valeurs font au plus 32 bits, un long jusqu'à 64 bits, et au-delà
+ * plusieurs long par pixel (bits empaquetés). Le bit i d'une valeur est le
+ * bit i du mot correspondant.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+abstract class Pixels {
+    protected final int bits;
+
+    private Pixels(int bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * Crée un stockage de size pixels pouvant contenir des valeurs de bits
+     * bits : la taille des messages pour une image en clair ou décodée,
+     * celle des mots du code pour une image encodée.
+     *
+     * @param size le nombre de pixels
+     * @param bits la taille maximale d'une valeur
+     * @return un nouveau stockage, tous les pixels à 0
+     */
+    static Pixels create(int size, int bits) {
+        if (bits <= Integer.SIZE) {
+            return new IntPixels(size, bits);
+        }
+        if (bits <= Long.SIZE) {
+            return new LongPixels(size, bits);
+        }
+        return new WordPixels(size, bits);
+    }
+
+    /**
+     * Retourne la taille maximale des valeurs de ce stockage.
+     *
+     * @return le nombre de bits
+     */
+    int bits() {
+        return bits;
+    }
+
+    /**
+     * Retourne un stockage pouvant contenir des valeurs de bits bits, avec
+     * les mêmes valeurs : celui-ci s'il est assez large, sinon une copie.
+     *
+     * @param bits la taille maximale d'une valeur
+     * @return ce stockage ou un nouveau, plus large
+     */
+    Pixels widen(int bits) {
+        if (bits <= this.bits) {
+            return this;
+        }
+        Pixels wider = create(size(), bits);
+        for (int i = 0; i < size(); i++) {
+            wider.word(i, word(i, bits));
+        }
+        return wider;
+    }
+
+    /**
+     * Retourne le nombre de pixels.
+     *
+     * @return le nombre de pixels
+     */
+    abstract int size();
+
+    /**
+     * Indique si les valeurs tiennent dans un long (accès par get et set).
+     *
+     * @return vrai si les mots font au plus 64 bits
+     */
+    boolean isNarrow() {
+        return bits <= Long.SIZE;
+    }
+
+    /**
+     * Retourne la valeur du pixel i (bits de poids faible pour les mots de plus de 64 bits).
+     *
+     * @param i l'indice du pixel
+     * @return la valeur du pixel
+     */
+    abstract long get(int i);
+
+    /**
+     * Modifie la valeur du pixel i.
+     *
+     * @param i l'indice du pixel
+     * @param value la nouvelle valeur
+     */
+    abstract void set(int i, long value);
+
+    /**
+     * Copie les valeurs des pixels à partir de from dans dst (autant que sa taille).
+     *
+     * @param from le premier pixel
+     * @param dst le tableau destination
+     */
+    void read(int from, long[] dst) {
+        for (int i = 0; i < dst.length; i++) {
+            dst[i] = get(from + i);
+        }
+    }
+
+    /**
+     * Copie les valeurs des pixels à partir de from dans dst, qui doivent tenir dans un int.
+     *
+     * @param from le premier pixel
+     * @param dst le tableau destination
+     */
+    void read(int from, int[] dst) {
+        for (int i = 0; i < dst.length; i++) {
+            dst[i] = (int) get(from + i);
+        }
+    }
+
+    /**
+     * Modifie les valeurs des pixels à partir de from avec celles de src.
+     *
+     * @param from le premier pixel
+     * @param src les nouvelles valeurs
+     */
+    void write(int from, long[] src) {
+        for (int i = 0; i < src.length; i++) {
+            set(from + i, src[i]);
+        }
+    }
+
+    /**
+     * Modifie les valeurs des pixels à partir de from avec celles de src (non signées).
+     *
+     * @param from le premier pixel
+     * @param src les nouvelles valeurs
+     */
+    void write(int from, int[] src) {
+        for (int i = 0; i < src.length; i++) {
+            set(from + i, src[i] & 0xFFFFFFFFL);
+        }
+    }
+
+    /**
+     * Retourne la valeur du pixel i sous forme de mot de taille size.
+     *
+     * @param i l'indice du pixel
+     * @param size la taille du mot
+     * @return un nouveau mot
+     * @throws IllegalArgumentException si la valeur ne tient pas sur size bits
+     */
+    abstract Word word(int i, int size);
+
+    /**
+     * Vérifie que les bits de values à partir de from, au-delà des size
+     * premiers et jusqu'à la fin du pixel (count long), sont nuls.
+     *
+     * @param i l'indice du pixel, pour le message
+     * @param values le tableau
+     * @param from le premier long du pixel
+     * @param count le nombre de long du pixel
+     * @param size la taille du mot
+     * @throws IllegalArgumentException si la valeur ne tient pas sur size bits
+     */
+    static void checkFits(int i, long[] values, int from, int count, int size) {
+        for (int w = size / Long.SIZE; w < count; w++) {
+            int shift = size - w * Long.SIZE;
+            long high = shift > 0 ? values[from + w] >>> shift : values[from + w];
+            if (high != 0) {
+                throw new IllegalArgumentException("The value of pixel " + i + " doesn't fit in " + size + " bits");
+            }
+        }
+    }
+
+    /**
+     * Modifie la valeur du pixel i à partir d'un mot.
+     *
+     * @param i l'indice du pixel
+     * @param word le mot
+     */
+    abstract void word(int i, Word word);
+
+    /**
+     * Indique si la valeur (non signée) du pixel i dépasse max.
+     *
+     * @param i l'indice du pixel
+     * @param max la valeur maximale
+     * @return vrai si la valeur dépasse max
+     */
+    boolean exceeds(int i, long max) {
+        return Long.compareUnsigned(get(i), max) > 0;
+    }
+
+    /**
+     * Lit la valeur décimale du pixel i dans line, entre from (inclus) et
+     * to (exclus). Les nombres négatifs sont pris en complément à deux sur
+     * la taille des mots, comme par {@link Word#bigIntToWord(BigInteger, int)}.
+     *
+     * @param i l'indice du pixel
+     * @param line le texte contenant la valeur
+     * @param from le début de la valeur
+     * @param to la fin de la valeur
+     */
+    void parse(int i, CharSequence line, int from, int to) {
+        boolean negative = line.charAt(from) == '-';
+        int start = negative ? from + 1 : from;
+        // chemin rapide : au plus 18 chiffres, tient dans un long
+        if (isNarrow() && to - start <= 18 && start < to) {
+            long value = 0;
+            for (int c = start; c < to; c++) {
+                int digit = line.charAt(c) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new NumberFormatException("For input string: \"" + line.subSequence(from, to) + "\"");
+                }
+                value = value * 10 + digit;
+            }
+            if (negative) {
+                value = -value;
+            }
+            if (bits < Long.SIZE) {
+                if (value >>> bits != 0 && value >> (bits - 1) != -1L) {
+                    throw new IllegalArgumentException("The value " + value + " doesn't fit in " + bits + " bits");
+                }
+                value &= (1L << bits) - 1;
+            }
+            set(i, value);
+        }
+        else {
+            word(i, bigIntToWord(new BigInteger(line.subSequence(from, to).toString()), bits));
+        }
+    }
+
+    /**
+     * Lit la valeur décimale du pixel i, voir {@link #parse(int, CharSequence, int, int)},
+     * en élargissant le stockage à maxBits si elle ne tient pas dans celui-ci
+     * (image encodée) : les nombres négatifs sont alors pris en complément à
+     * deux sur maxBits bits.
+     *
+     * @param i l'indice du pixel
+     * @param line le texte contenant la valeur
+     * @param from le début de la valeur
+     * @param to la fin de la valeur
+     * @param maxBits la taille des mots du code
+     * @return ce stockage ou un nouveau, plus large, contenant la valeur
+     * @throws IllegalArgumentException si la valeur ne tient pas sur maxBits bits
+     */
+    Pixels parse(int i, CharSequence line, int from, int to, int maxBits) {
+        Pixels target = fits(line, from, to) ? this : widen(maxBits);
+        target.parse(i, line, from, to);
+        return target;
+    }
+
+    /**
+     * Indique si une valeur décimale positive tient dans ce stockage (faux
+     * pour une valeur négative ou mal formée, laissée à l'analyse complète).
+     */
+    private boolean fits(CharSequence line, int from, int to) {
+        if (from >= to || line.charAt(from) == '-') {
+            return false;
+        }
+        if (to - from > 18) {
+            return !isNarrow();
+        }
+        long value = 0;
+        for (int c = from; c < to; c++) {
+            int digit = line.charAt(c) - '0';
+            if (digit < 0 || digit > 9) {
+                return true;
+            }
+            value = value * 10 + digit;
+        }
+        return bits >= Long.SIZE || value >>> bits == 0;
+    }
+
+    /**
+     * Ajoute la valeur décimale (non signée) du pixel i à sb.
+     *
+     * @param i l'indice du pixel
+     * @param sb le StringBuilder
+     */
+    void format(int i, StringBuilder sb) {
+        long value = get(i);
+        if (isNarrow() && value >= 0) {
+            sb.append(value);
+        }
+        else if (isNarrow()) {
+            sb.append(Long.toUnsignedString(value));
+        }
+        else {
+            sb.append(wordToBigInt(word(i, bits)));
+        }
+    }
+
+    /**
+     * Un int par pixel, pour des mots d'au plus 32 bits.
+     */
+    private static final class IntPixels extends Pixels {
+        private final int[] values;
+
+        IntPixels(int size, int bits) {
+            super(bits);
+            values = new int[size];
+        }
+
+        @Override
+        int size() {
+            return values.length;
+        }
+
+        @Override
+        long get(int i) {
+            return values[i] & 0xFFFFFFFFL;
+        }
+
+        @Override
+        void set(int i, long value) {
+            values[i] = (int) value;
+        }
+
+        @Override
+        void read(int from, int[] dst) {
+            System.arraycopy(values, from, dst, 0, dst.length);
+        }
+
+        @Override
+        void write(int from, int[] src) {
+            System.arraycopy(src, 0, values, from, src.length);
+        }
+
+        @Override
+        Word word(int i, int size) {
+            long[] value = new long[Math.max(1, (size + Long.SIZE - 1) / Long.SIZE)];
+            value[0] = get(i);
+            checkFits(i, value, 0, 1, size);
+            return Word.fromLongs(value, 0, size);
+        }
+
+        @Override
+        void word(int i, Word word) {
+            long[] longs = word.toLongs();
+            checkFits(i, longs, 0, longs.length, bits);
+            set(i, longs.length == 0 ? 0 : longs[0]);
+        }
+    }
+
+    /**
+     * Un long par pixel, pour des mots d'au plus 64 bits.
+     */
+    private static final class LongPixels extends Pixels {
+        private final long[] values;
+
+        LongPixels(int size, int bits) {
+            super(bits);
+            values = new long[size];
+        }
+
+        @Override
+        int size() {
+            return values.length;
+        }
+
+        @Override
+        long get(int i) {
+            return values[i];
+        }
+
+        @Override
+        void set(int i, long value) {
+            values[i] = value;
+        }
+
+        @Override
+        void read(int from, long[] dst) {
+            System.arraycopy(values, from, dst, 0, dst.length);
+        }
+
+        @Override
+        void write(int from, long[] src) {
+            System.arraycopy(src, 0, values, from, src.length);
+        }
+
+        @Override
+        Word word(int i, int size) {
+            checkFits(i, values, i, 1, size);
+            if (size > Long.SIZE) {
+                long[] value = new long[(size + Long.SIZE - 1) / Long.SIZE];
+                value[0] = values[i];
+                return Word.fromLongs(value, 0, size);
+            }
+            return Word.fromLongs(values, i, size);
+        }
+
+        @Override
+        void word(int i, Word word) {
+            long[] longs = word.toLongs();
+            checkFits(i, longs, 0, longs.length, bits);
+            values[i] = longs.length == 0 ? 0 : longs[0];
+        }
+    }
+
+    /**
+     * Plusieurs long par pixel, bits empaquetés, pour des mots de plus de 64 bits.
+     */
+    private static final class WordPixels extends Pixels {
+        private final long[] values;
+        private final int stride;
+
+        WordPixels(int size, int bits) {
+            super(bits);
+            stride = (bits + Long.SIZE - 1) / Long.SIZE;
+            values = new long[size * stride];
+        }
+
+        @Override
+        int size() {
+            return values.length / stride;
+        }
+
+        @Override
+        long get(int i) {
+            return values[i * stride];
+        }
+
+        @Override
+        void set(int i, long value) {
+            values[i * stride] = value;
+            for (int w = 1; w < stride; w++) {
+                values[i * stride + w] = 0;
+            }
+        }
+
+        @Override
+        Word word(int i, int size) {
+            checkFits(i, values, i * stride, stride, size);
+            if (size > stride * Long.SIZE) {
+                long[] value = new long[(size + Long.SIZE - 1) / Long.SIZE];
+                System.arraycopy(values, i * stride, value, 0, stride);
+                return Word.fromLongs(value, 0, size);
+            }
+            return Word.fromLongs(values, i * stride, size);
+        }
+
+        @Override
+        boolean exceeds(int i, long max) {
+            for (int w = 1; w < stride; w++) {
+                if (values[i * stride + w] != 0) {
+                    return true;
+                }
+            }
+            return super.exceeds(i, max);
+        }
+
+        @Override
+        void word(int i, Word word) {
+            long[] longs = word.toLongs();
+            checkFits(i, longs, 0, longs.length, bits);
+            set(i, 0);
+            System.arraycopy(longs, 0, values, i * stride, Math.min(longs.length, stride));
+        }
+    }
+}
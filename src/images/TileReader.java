@@ -0,0 +1,221 @@
+package images;
+
+import reedmuller.ReedMuller;
+import reedmuller.Word;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lecteur à accès direct d'une image encodée au format binaire compact (voir
+ * {@link PackedReader}). Tous les mots font 2^r bits, le mot du pixel (x, y)
+ * commence donc au bit (y * largeur + x) * 2^r des données : le fichier est
+ * projeté en mémoire ({@link FileChannel#map}) et seuls les mots d'un
+ * rectangle demandé sont lus et décodés, le temps de lecture dépend de la
+ * taille du rectangle et pas de celle du fichier.
+ * <p>
+ * Le fichier est projeté par segments d'au plus 1 Gio, qui se chevauchent
+ * d'un mot pour que chaque mot tienne dans un segment. Les lectures ne
+ * modifient pas l'état du lecteur, plusieurs threads peuvent donc lire des
+ * rectangles en même temps. La projection est libérée par le ramasse-miettes,
+ * après la fermeture du lecteur.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+public class TileReader implements Closeable {
+    private static final int HEADER_SIZE = 5 * Integer.BYTES;
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    private final FileChannel in;
+    private final ByteBuffer[] segments;
+    private final int width;
+    private final int height;
+    private final int greyLevel;
+    private final int bits;
+    private final ReedMuller rm;
+
+    /**
+     * Ouvre et projette en mémoire une image au format compact.
+     *
+     * @param filename le nom du fichier
+     * @throws IOException si le fichier pas trouvé par exemple
+     * @throws IllegalArgumentException si l'en-tête n'est pas conforme ou le fichier tronqué
+     */
+    public TileReader(String filename) throws IOException, IllegalArgumentException {
+        in = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        try {
+            long size = in.size();
+            if (size < HEADER_SIZE) {
+                throw new IllegalArgumentException("The file is not a packed encoded image");
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && in.read(header, header.position()) > 0) {
+                // lecture de l'en-tête complet
+            }
+            header.flip();
+            if (header.getInt() != PackedReader.MAGIC) {
+                throw new IllegalArgumentException("The file is not a packed encoded image");
+            }
+            width = header.getInt();
+            height = header.getInt();
+            greyLevel = header.getInt();
+            int r = header.getInt();
+            rm = new PGM(width, 0, greyLevel).getCode();
+            if (rm.getR() != r) {
+                throw new IllegalArgumentException("The order " + r + " doesn't match the grey level " + greyLevel);
+            }
+            bits = rm.getEndDim();
+            long dataBits = (long) width * height * bits;
+            if (size < HEADER_SIZE + (dataBits + Byte.SIZE - 1) / Byte.SIZE) {
+                throw new IllegalArgumentException("The file is truncated");
+            }
+            // chevauchement d'un mot entier (au moins un octet)
+            long overlap = Math.max(1, bits / Byte.SIZE);
+            segments = new ByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int s = 0; s < segments.length; s++) {
+                long start = s * SEGMENT_SIZE;
+                long length = Math.min(size - start, SEGMENT_SIZE + overlap);
+                segments[s] = in.map(FileChannel.MapMode.READ_ONLY, start, length).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Retourne la largeur de l'image.
+     *
+     * @return la largeur
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Retourne la hauteur de l'image.
+     *
+     * @return la hauteur
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Retourne le niveau de gris max de l'image.
+     *
+     * @return le niveau de gris
+     */
+    public int getGreyLevel() {
+        return greyLevel;
+    }
+
+    /**
+     * Lit, débruite et décode (recherche rapide) les lignes from à from + rows - 1.
+     *
+     * @param from la première ligne
+     * @param rows le nombre de lignes
+     * @return les lignes décodées, sous forme d'image PGM de même largeur
+     * @throws IllegalArgumentException si les lignes sortent de l'image
+     */
+    public PGM readRows(int from, int rows) throws IllegalArgumentException {
+        return readTile(0, from, width, rows);
+    }
+
+    /**
+     * Lit, débruite et décode (recherche rapide) le rectangle de tileWidth
+     * sur tileHeight pixels dont le coin supérieur gauche est (x, y).
+     *
+     * @param x la colonne du coin supérieur gauche
+     * @param y la ligne du coin supérieur gauche
+     * @param tileWidth la largeur du rectangle
+     * @param tileHeight la hauteur du rectangle
+     * @return le rectangle décodé, sous forme d'image PGM
+     * @throws IllegalArgumentException si le rectangle sort de l'image
+     */
+    public PGM readTile(int x, int y, int tileWidth, int tileHeight) throws IllegalArgumentException {
+        if (x < 0 || y < 0 || tileWidth < 0 || tileHeight < 0
+                || x > width - tileWidth || y > height - tileHeight) {
+            throw new IllegalArgumentException("The tile " + tileWidth + "x" + tileHeight + " at (" + x + ", " + y
+                    + ") doesn't fit in the image (" + width + "x" + height + ")");
+        }
+        PGM tile = new PGM(tileWidth, tileHeight, greyLevel);
+        Pixels values = Pixels.create(tileWidth * tileHeight, rm.getStartDim());
+        if (bits <= Long.SIZE) {
+            long[] words = new long[tileWidth];
+            int[] decoded = new int[tileWidth];
+            for (int row = 0; row < tileHeight; row++) {
+                long first = (long) (y + row) * width + x;
+                for (int i = 0; i < tileWidth; i++) {
+                    words[i] = word(first + i);
+                }
+                rm.fastSearchAll(words, decoded);
+                values.write(row * tileWidth, decoded);
+            }
+        }
+        else {
+            long[] longs = new long[bits / Long.SIZE];
+            for (int row = 0; row < tileHeight; row++) {
+                long first = (long) (y + row) * width + x;
+                for (int i = 0; i < tileWidth; i++) {
+                    word(first + i, longs);
+                    values.word(row * tileWidth + i, rm.fastSearch(Word.fromLongs(longs, 0, bits)));
+                }
+            }
+        }
+        tile.setPixels(values);
+        return tile;
+    }
+
+    /**
+     * Retourne le segment contenant l'octet offset du fichier.
+     */
+    private ByteBuffer segment(long offset) {
+        return segments[(int) (offset / SEGMENT_SIZE)];
+    }
+
+    /**
+     * Lit le mot du pixel index, pour des mots d'au plus 64 bits. Les mots de
+     * 2 et 4 bits ne dépassent pas d'un octet, les autres commencent sur un octet.
+     */
+    private long word(long index) {
+        long bit = index * bits;
+        long offset = HEADER_SIZE + bit / Byte.SIZE;
+        ByteBuffer segment = segment(offset);
+        int local = (int) (offset % SEGMENT_SIZE);
+        switch (bits) {
+            case Byte.SIZE:
+                return segment.get(local) & 0xFFL;
+            case Short.SIZE:
+                return segment.getShort(local) & 0xFFFFL;
+            case Integer.SIZE:
+                return segment.getInt(local) & 0xFFFFFFFFL;
+            case Long.SIZE:
+                return segment.getLong(local);
+            default:
+                return (segment.get(local) & 0xFF) >>> (bit % Byte.SIZE) & ((1 << bits) - 1);
+        }
+    }
+
+    /**
+     * Lit le mot du pixel index, pour des mots de plus de 64 bits, dans longs.
+     */
+    private void word(long index, long[] longs) {
+        long offset = HEADER_SIZE + index * (bits / Byte.SIZE);
+        ByteBuffer segment = segment(offset);
+        int local = (int) (offset % SEGMENT_SIZE);
+        for (int w = 0; w < longs.length; w++) {
+            longs[w] = segment.getLong(local + w * Long.BYTES);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
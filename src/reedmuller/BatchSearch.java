@@ -0,0 +1,24 @@
+package reedmuller;
+
+/**
+ * Recherche rapide sur un lot de mots reçus tenant dans un long. Implémentée
+ * avec l'API Vector ({@code VectorBatchSearch}, chargée seulement si le module
+ * jdk.incubator.vector est disponible), ReedMuller se rabattant sinon sur la
+ * recherche scalaire, qui donne les mêmes résultats.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+interface BatchSearch {
+    /**
+     * Décode les premiers mots du lot, par groupes entiers de la taille des
+     * vecteurs ; les mots restants sont laissés à l'appelant.
+     *
+     * @param r l'ordre du code (5 ou 6)
+     * @param received les mots reçus
+     * @param decoded les mots décodés, même indice que dans received
+     * @param count le nombre de mots du lot
+     * @return le nombre de mots décodés, depuis le début du lot
+     */
+    int fastSearch(int r, long[] received, int[] decoded, int count);
+}
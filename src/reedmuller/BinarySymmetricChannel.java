@@ -0,0 +1,155 @@
+package reedmuller;
+
+import java.util.SplittableRandom;
+
+/**
+ * Canal binaire symétrique : chaque bit transmis est inversé avec une
+ * probabilité donnée, indépendamment des autres. Plutôt que de tirer un
+ * nombre aléatoire par bit, le canal tire l'écart jusqu'au prochain bit
+ * inversé selon une loi géométrique, soit environ un tirage par bit inversé.
+ * L'écart restant est reporté d'un mot à l'autre, les mots successifs
+ * forment donc un seul flux de bits.
+ * <p>
+ * Un canal n'est pas thread-safe : chaque thread utilise le sien, obtenu
+ * par {@link #split()} ou construit avec sa propre graine.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+public class BinarySymmetricChannel {
+    // écart maximal tiré, pour que la position du prochain bit ne déborde pas
+    private static final long MAX_GAP = Long.MAX_VALUE / 2;
+
+    private final double probability;
+    private final double logComplement;
+    private final SplittableRandom random;
+    // nombre de bits à transmettre intacts avant le prochain bit inversé
+    private long gap;
+
+    /**
+     * Construit un canal dont le flux aléatoire est déterminé par la graine.
+     *
+     * @param probability la probabilité d'inverser un bit
+     * @param seed la graine
+     */
+    public BinarySymmetricChannel(double probability, long seed) {
+        this(probability, new SplittableRandom(seed));
+    }
+
+    /**
+     * Construit un canal qui tire ses nombres aléatoires dans le générateur fourni.
+     *
+     * @param probability la probabilité d'inverser un bit
+     * @param random le générateur à utiliser
+     */
+    public BinarySymmetricChannel(double probability, SplittableRandom random) {
+        if (!(probability >= 0.0 && probability <= 1.0)) {
+            throw new IllegalArgumentException("probability must be between 0.0 and 1.0");
+        }
+        this.probability = probability;
+        this.logComplement = Math.log1p(-probability);
+        this.random = random;
+        gap = nextGap();
+    }
+
+    /**
+     * Retourne la probabilité d'inverser un bit.
+     *
+     * @return la probabilité
+     */
+    public double getProbability() {
+        return probability;
+    }
+
+    /**
+     * Crée un canal de même probabilité avec un flux aléatoire indépendant,
+     * pour un autre thread.
+     *
+     * @return le nouveau canal
+     */
+    public BinarySymmetricChannel split() {
+        return new BinarySymmetricChannel(probability, random.split());
+    }
+
+    /**
+     * Tire le nombre de bits intacts avant le prochain bit inversé, selon
+     * la loi géométrique de paramètre probability.
+     *
+     * @return l'écart
+     */
+    private long nextGap() {
+        if (probability == 0.0) {
+            return MAX_GAP;
+        }
+        if (probability == 1.0) {
+            return 0;
+        }
+        // 1 - nextDouble() est dans ]0, 1], son logarithme est fini
+        double gap = Math.log(1.0 - random.nextDouble()) / logComplement;
+        return gap >= MAX_GAP ? MAX_GAP : (long) gap;
+    }
+
+    /**
+     * Tire le masque des bits inversés des bits suivants du flux.
+     *
+     * @param bits le nombre de bits, entre 0 et 64
+     * @return le masque, le bit i à 1 si le bit i est inversé
+     */
+    public long nextMask(int bits) {
+        if (bits < 0 || bits > Long.SIZE) {
+            throw new IllegalArgumentException("bits must be between 0 and " + Long.SIZE);
+        }
+        long mask = 0;
+        long position = gap;
+        while (position < bits) {
+            mask |= 1L << position;
+            position += 1 + nextGap();
+        }
+        gap = position - bits;
+        return mask;
+    }
+
+    /**
+     * Transmet un mot tenant dans un long.
+     *
+     * @param word le mot, dans les bits de poids faible
+     * @param bits la taille du mot, entre 0 et 64
+     * @return le mot reçu
+     */
+    public long transmit(long word, int bits) {
+        return word ^ nextMask(bits);
+    }
+
+    /**
+     * Transmet un mot.
+     *
+     * @param word le mot
+     * @return un nouveau mot, le mot reçu
+     */
+    public Word transmit(Word word) {
+        Word received = new Word(word);
+        long position = gap;
+        while (position < word.size()) {
+            received.flip((int) position);
+            position += 1 + nextGap();
+        }
+        gap = position - word.size();
+        return received;
+    }
+
+    /**
+     * Transmet un lot de mots tenant dans un long, les uns après les autres.
+     *
+     * @param words les mots
+     * @param received les mots reçus, au même indice que dans words
+     * @param bits la taille des mots, entre 0 et 64
+     */
+    public void transmitAll(long[] words, long[] received, int bits) {
+        if (received.length < words.length) {
+            throw new IllegalArgumentException("The output array must have at least " + words.length + " elements");
+        }
+        for (int i = 0; i < words.length; i++) {
+            received[i] = words[i] ^ nextMask(bits);
+        }
+    }
+}
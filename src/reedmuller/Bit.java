@@ -60,7 +60,7 @@ public class Bit {
      * @return !this
      */
     public Bit not() {
-        return new Bit((value + 1) % 2);
+        return value == 0 ? ONE : ZERO;
     }
 
     /**
@@ -71,7 +71,7 @@ public class Bit {
      * @return la somme des bits
      */
     public static Bit add(Bit one, Bit two) {
-        return new Bit((one.value + two.value) % 2);
+        return one.value == two.value ? ZERO : ONE;
     }
 
     /**
@@ -82,7 +82,7 @@ public class Bit {
      * @return le produit des bits
      */
     public static Bit mult(Bit one, Bit two) {
-        return new Bit(one.value * two.value);
+        return one.value == 1 && two.value == 1 ? ONE : ZERO;
     }
 
     @Override
@@ -95,6 +95,11 @@ public class Bit {
         return value == bit.value;
     }
 
+    @Override
+    public int hashCode() {
+        return value;
+    }
+
     @Override
     public String toString() {
         return "" + value;
@@ -0,0 +1,108 @@
+package reedmuller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Lecture de mots de bits quelconques mis bout à bout dans un canal, dans
+ * l'ordre de {@link BitWriter}.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+public final class BitReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel in;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long acc;
+    private int accBits;
+
+    /**
+     * Construit un lecteur sur un canal, à partir de sa position courante.
+     *
+     * @param in le canal, qui n'est pas fermé par le lecteur
+     */
+    public BitReader(ReadableByteChannel in) {
+        this.in = in;
+        buffer.limit(0);
+    }
+
+    /**
+     * Retire n bits du flux.
+     *
+     * @param n le nombre de bits, entre 1 et 64
+     * @return les bits lus, dans les bits de poids faible
+     * @throws IOException en cas d'erreur de lecture
+     * @throws IllegalArgumentException si le flux se termine avant
+     */
+    public long getBits(int n) throws IOException, IllegalArgumentException {
+        long mask = n == Long.SIZE ? -1L : (1L << n) - 1;
+        if (accBits >= n) {
+            long value = acc & mask;
+            acc = n == Long.SIZE ? 0 : acc >>> n;
+            accBits -= n;
+            return value;
+        }
+        int available = fill();
+        long next = nextLong(available);
+        int nextBits = Math.min(available, Long.BYTES) * Byte.SIZE;
+        if (accBits + nextBits < n) {
+            throw new IllegalArgumentException("The stream is truncated");
+        }
+        long value = (acc | next << accBits) & mask;
+        int used = n - accBits;
+        acc = used == Long.SIZE ? 0 : next >>> used;
+        accBits = nextBits - used;
+        return value;
+    }
+
+    /**
+     * Retire count mots de bits bits du flux.
+     *
+     * @param words les mots lus
+     * @param count le nombre de mots
+     * @param bits la taille des mots, entre 1 et 64
+     * @throws IOException en cas d'erreur de lecture
+     * @throws IllegalArgumentException si le flux se termine avant
+     */
+    public void getWords(long[] words, int count, int bits) throws IOException, IllegalArgumentException {
+        for (int i = 0; i < count; i++) {
+            words[i] = getBits(bits);
+        }
+    }
+
+    /**
+     * Lit les 64 bits suivants du flux, ou ceux qui restent complétés par des 0.
+     */
+    private long nextLong(int available) {
+        if (available >= Long.BYTES) {
+            return buffer.getLong();
+        }
+        long value = 0;
+        for (int b = 0; buffer.hasRemaining(); b += Byte.SIZE) {
+            value |= (buffer.get() & 0xFFL) << b;
+        }
+        return value;
+    }
+
+    /**
+     * Complète le tampon jusqu'à avoir au moins 8 octets disponibles ou
+     * atteindre la fin du flux.
+     *
+     * @return le nombre d'octets disponibles
+     */
+    private int fill() throws IOException {
+        if (buffer.remaining() >= Long.BYTES) {
+            return buffer.remaining();
+        }
+        buffer.compact();
+        while (buffer.position() < Long.BYTES && in.read(buffer) > 0) {
+            // lecture jusqu'à avoir assez d'octets
+        }
+        buffer.flip();
+        return buffer.remaining();
+    }
+}
@@ -0,0 +1,94 @@
+package reedmuller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Écriture de mots de bits quelconques mis bout à bout dans un canal : le
+ * bit j du flux est le bit j % 8 de l'octet j / 8 (bits de poids faible en
+ * premier). Format commun aux images compactes et aux flux codés, relu par
+ * {@link BitReader}.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+public final class BitWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel out;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long acc;
+    private int accBits;
+
+    /**
+     * Construit un écrivain sur un canal.
+     *
+     * @param out le canal, qui n'est pas fermé par l'écrivain
+     */
+    public BitWriter(WritableByteChannel out) {
+        this.out = out;
+    }
+
+    /**
+     * Ajoute les n bits de poids faible de value au flux.
+     *
+     * @param value la valeur, sans bit au-delà du n-ième
+     * @param n le nombre de bits, entre 1 et 64
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void putBits(long value, int n) throws IOException {
+        acc |= value << accBits;
+        int total = accBits + n;
+        if (total >= Long.SIZE) {
+            if (buffer.remaining() < Long.BYTES) {
+                drain();
+            }
+            buffer.putLong(acc);
+            acc = accBits == 0 ? 0 : value >>> (Long.SIZE - accBits);
+            total -= Long.SIZE;
+        }
+        accBits = total;
+    }
+
+    /**
+     * Ajoute les count premiers mots de bits bits au flux.
+     *
+     * @param words les mots
+     * @param count le nombre de mots
+     * @param bits la taille des mots, entre 1 et 64
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void putWords(long[] words, int count, int bits) throws IOException {
+        for (int i = 0; i < count; i++) {
+            putBits(words[i], bits);
+        }
+    }
+
+    /**
+     * Écrit les derniers bits, complétés par des 0 jusqu'à l'octet, et vide
+     * le tampon dans le canal. Les bits ajoutés ensuite commencent à l'octet suivant.
+     *
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void finish() throws IOException {
+        for (int b = 0; b < accBits; b += Byte.SIZE) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            buffer.put((byte) (acc >>> b));
+        }
+        acc = 0;
+        accBits = 0;
+        drain();
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,222 @@
+package reedmuller;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métriques du codec : mots encodés et décodés, bits corrigés par mot,
+ * décodages ambigus et durée des opérations sur les images. Les compteurs
+ * sont des {@link LongAdder}, sans contention entre threads.
+ * <p>
+ * La collecte est désactivée par défaut : le codec ne fait alors qu'une
+ * lecture d'un booléen par appel (ou par lot). Avec -Dreedmuller.metrics=true,
+ * elle est activée et les métriques sont publiées par JMX ; {@link #register()}
+ * les publie sans les activer, un client JMX pouvant ensuite le faire.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+public final class CodecMetrics implements CodecMetricsMXBean {
+    static final String OBJECT_NAME = "reedmuller:type=CodecMetrics";
+    // 0 à 63 bits corrigés, puis 64 ou plus
+    private static final int HISTOGRAM_SIZE = 65;
+    private static final CodecMetrics INSTANCE = new CodecMetrics();
+
+    private static volatile boolean enabled;
+
+    private final LongAdder encoded = new LongAdder();
+    private final LongAdder decoded = new LongAdder();
+    private final LongAdder ambiguous = new LongAdder();
+    private final LongAdder[] corrected = new LongAdder[HISTOGRAM_SIZE];
+    private final LongAdder correctedBits = new LongAdder();
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+    static {
+        if (Boolean.getBoolean("reedmuller.metrics")) {
+            enabled = true;
+            register();
+        }
+    }
+
+    private CodecMetrics() {
+        for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+            corrected[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Retourne les métriques du codec, communes à toute la JVM.
+     *
+     * @return les métriques
+     */
+    public static CodecMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Publie les métriques sur le serveur JMX de la plateforme, si ce n'est
+     * pas déjà fait.
+     */
+    public static synchronized void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("The codec metrics can't be registered", e);
+        }
+    }
+
+    /**
+     * Indique si les métriques sont collectées, à tester avant tout calcul
+     * fait seulement pour elles.
+     *
+     * @return vrai si elles sont collectées
+     */
+    public static boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Compte des mots encodés.
+     *
+     * @param words le nombre de mots
+     */
+    static void wordsEncoded(long words) {
+        INSTANCE.encoded.add(words);
+    }
+
+    /**
+     * Compte des mots décodés.
+     *
+     * @param words le nombre de mots
+     */
+    static void wordsDecoded(long words) {
+        INSTANCE.decoded.add(words);
+    }
+
+    /**
+     * Compte un mot débruité.
+     *
+     * @param bits le nombre de bits corrigés
+     * @param tie vrai si plusieurs mots du code étaient à la même distance minimale
+     */
+    static void corrected(int bits, boolean tie) {
+        INSTANCE.corrected[Math.min(bits, HISTOGRAM_SIZE - 1)].increment();
+        INSTANCE.correctedBits.add(bits);
+        if (tie) {
+            INSTANCE.ambiguous.increment();
+        }
+    }
+
+    /**
+     * Compte une exécution d'une opération sur les images, si la collecte est activée.
+     *
+     * @param operation le nom de l'opération
+     * @param nanos la durée en nanosecondes
+     */
+    public static void operation(String operation, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        Operation stats = INSTANCE.operations.computeIfAbsent(operation, o -> new Operation());
+        stats.count.increment();
+        stats.nanos.add(nanos);
+        stats.max.accumulateAndGet(nanos, Math::max);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        CodecMetrics.enabled = enabled;
+    }
+
+    @Override
+    public long getWordsEncoded() {
+        return encoded.sum();
+    }
+
+    @Override
+    public long getWordsDecoded() {
+        return decoded.sum();
+    }
+
+    @Override
+    public long getAmbiguousDecodes() {
+        return ambiguous.sum();
+    }
+
+    @Override
+    public long[] getCorrectedBitsHistogram() {
+        long[] histogram = new long[HISTOGRAM_SIZE];
+        for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+            histogram[i] = corrected[i].sum();
+        }
+        return histogram;
+    }
+
+    @Override
+    public double getMeanCorrectedBits() {
+        long words = 0;
+        for (LongAdder count : corrected) {
+            words += count.sum();
+        }
+        return words == 0 ? 0 : (double) correctedBits.sum() / words;
+    }
+
+    @Override
+    public Map<String, Long> getOperationCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        operations.forEach((name, stats) -> counts.put(name, stats.count.sum()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getOperationMeanMillis() {
+        Map<String, Double> means = new TreeMap<>();
+        operations.forEach((name, stats) ->
+                means.put(name, stats.nanos.sum() / 1e6 / Math.max(1, stats.count.sum())));
+        return means;
+    }
+
+    @Override
+    public Map<String, Double> getOperationMaxMillis() {
+        Map<String, Double> max = new TreeMap<>();
+        operations.forEach((name, stats) -> max.put(name, stats.max.get() / 1e6));
+        return max;
+    }
+
+    @Override
+    public void reset() {
+        encoded.reset();
+        decoded.reset();
+        ambiguous.reset();
+        correctedBits.reset();
+        for (LongAdder count : corrected) {
+            count.reset();
+        }
+        operations.clear();
+    }
+
+    /**
+     * Statistiques d'une opération sur les images.
+     */
+    private static final class Operation {
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final AtomicLong max = new AtomicLong();
+    }
+}
@@ -0,0 +1,90 @@
+package reedmuller;
+
+import java.util.Map;
+
+/**
+ * Interface JMX des métriques du codec (voir {@link CodecMetrics}), publiée
+ * sous le nom "reedmuller:type=CodecMetrics".
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+public interface CodecMetricsMXBean {
+    /**
+     * Indique si les métriques sont collectées.
+     *
+     * @return vrai si elles sont collectées
+     */
+    boolean isEnabled();
+
+    /**
+     * Active ou désactive la collecte des métriques.
+     *
+     * @param enabled vrai pour collecter
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Retourne le nombre de mots encodés.
+     *
+     * @return le nombre de mots
+     */
+    long getWordsEncoded();
+
+    /**
+     * Retourne le nombre de mots décodés, par toutes les méthodes.
+     *
+     * @return le nombre de mots
+     */
+    long getWordsDecoded();
+
+    /**
+     * Retourne le nombre de mots débruités dont plusieurs mots du code
+     * étaient à la même distance minimale (égalités dans la recherche).
+     *
+     * @return le nombre de décodages ambigus
+     */
+    long getAmbiguousDecodes();
+
+    /**
+     * Retourne l'histogramme du nombre de bits corrigés par mot débruité :
+     * l'élément i compte les mots à i bits de leur mot du code, le dernier
+     * tous ceux à plus de bits.
+     *
+     * @return l'histogramme
+     */
+    long[] getCorrectedBitsHistogram();
+
+    /**
+     * Retourne le nombre moyen de bits corrigés par mot débruité.
+     *
+     * @return la moyenne, 0 si aucun mot n'a été débruité
+     */
+    double getMeanCorrectedBits();
+
+    /**
+     * Retourne le nombre d'exécutions de chaque opération sur les images.
+     *
+     * @return le nombre d'exécutions, par nom d'opération
+     */
+    Map<String, Long> getOperationCounts();
+
+    /**
+     * Retourne la durée moyenne de chaque opération sur les images.
+     *
+     * @return la durée moyenne en millisecondes, par nom d'opération
+     */
+    Map<String, Double> getOperationMeanMillis();
+
+    /**
+     * Retourne la durée maximale de chaque opération sur les images.
+     *
+     * @return la durée maximale en millisecondes, par nom d'opération
+     */
+    Map<String, Double> getOperationMaxMillis();
+
+    /**
+     * Remet toutes les métriques à 0.
+     */
+    void reset();
+}
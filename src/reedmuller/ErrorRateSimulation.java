@@ -0,0 +1,350 @@
+package reedmuller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Simulation de Monte-Carlo des taux d'erreur binaire (BER) et par mot (FER)
+ * de la recherche rapide sur un canal binaire symétrique. Des messages
+ * aléatoires sont encodés, bruités puis décodés par lots indépendants,
+ * répartis sur tous les cœurs. La simulation d'un point (r, p) s'arrête dès
+ * que l'intervalle de confiance du FER est assez étroit, dès que sa borne
+ * supérieure passe sous un plancher (points sans erreur ou presque, où
+ * l'intervalle relatif ne se resserre pas), ou après un nombre maximal de mots.
+ * <p>
+ * Les lots sont regroupés en tours de taille fixe, chacun avec son propre
+ * générateur dérivé de la graine : le résultat est le même quel que soit
+ * le nombre de threads.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+public class ErrorRateSimulation {
+    // nombre de bits codés par lot, pour des lots de durée comparable quel que soit r
+    private static final int BATCH_BITS = 1 << 16;
+    private static final int ROUND_BATCHES = 64;
+    // nombre minimal de mots erronés avant d'estimer l'intervalle de confiance
+    private static final int MIN_FRAME_ERRORS = 20;
+    // FER sous lequel un point n'est plus simulé, par défaut
+    private static final double DEFAULT_FER_FLOOR = 1e-6;
+
+    private final double confidence;
+    private final double precision;
+    private final double ferFloor;
+    private final long maxFrames;
+    private final long seed;
+    private final double z;
+    private final ForkJoinPool pool;
+
+    /**
+     * Construit une simulation sur le pool commun, avec un plancher de FER de 1e-6.
+     *
+     * @param confidence le niveau de confiance de l'intervalle, par exemple 0.95
+     * @param precision la demi-largeur relative visée de l'intervalle du FER, par exemple 0.1
+     * @param maxFrames le nombre maximal de mots simulés par point
+     * @param seed la graine
+     */
+    public ErrorRateSimulation(double confidence, double precision, long maxFrames, long seed) {
+        this(confidence, precision, DEFAULT_FER_FLOOR, maxFrames, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Construit une simulation, avec un plancher de FER de 1e-6.
+     *
+     * @param confidence le niveau de confiance de l'intervalle, par exemple 0.95
+     * @param precision la demi-largeur relative visée de l'intervalle du FER, par exemple 0.1
+     * @param maxFrames le nombre maximal de mots simulés par point
+     * @param seed la graine
+     * @param pool le pool de threads qui simule les lots
+     */
+    public ErrorRateSimulation(double confidence, double precision, long maxFrames, long seed, ForkJoinPool pool) {
+        this(confidence, precision, DEFAULT_FER_FLOOR, maxFrames, seed, pool);
+    }
+
+    /**
+     * Construit une simulation.
+     *
+     * @param confidence le niveau de confiance de l'intervalle, par exemple 0.95
+     * @param precision la demi-largeur relative visée de l'intervalle du FER, par exemple 0.1
+     * @param ferFloor le plancher : un point s'arrête dès que la borne supérieure de son FER
+     *                 est en dessous (0 pour simuler ces points jusqu'à maxFrames)
+     * @param maxFrames le nombre maximal de mots simulés par point
+     * @param seed la graine
+     * @param pool le pool de threads qui simule les lots
+     */
+    public ErrorRateSimulation(double confidence, double precision, double ferFloor, long maxFrames, long seed,
+                               ForkJoinPool pool) {
+        if (confidence <= 0.0 || confidence >= 1.0) {
+            throw new IllegalArgumentException("confidence must be between 0.0 and 1.0 (excluded)");
+        }
+        if (precision <= 0.0) {
+            throw new IllegalArgumentException("precision must be greater than 0.0");
+        }
+        if (!(ferFloor >= 0.0 && ferFloor < 1.0)) {
+            throw new IllegalArgumentException("ferFloor must be between 0.0 (included) and 1.0 (excluded)");
+        }
+        if (maxFrames < 1) {
+            throw new IllegalArgumentException("maxFrames must be 1 or greater");
+        }
+        this.confidence = confidence;
+        this.precision = precision;
+        this.ferFloor = ferFloor;
+        this.maxFrames = maxFrames;
+        this.seed = seed;
+        this.pool = pool;
+        z = quantile((1 + confidence) / 2);
+    }
+
+    /**
+     * Simule tous les points (r, p) donnés, r par r.
+     *
+     * @param rs les ordres des codes
+     * @param probabilities les probabilités d'inverser un bit
+     * @return les résultats, dans l'ordre des points
+     */
+    public List<ErrorRate> sweep(int[] rs, double[] probabilities) {
+        List<ErrorRate> results = new ArrayList<>();
+        for (int r : rs) {
+            ReedMuller rm = ReedMuller.of(r);
+            for (double probability : probabilities) {
+                results.add(run(rm, probability));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Simule un point.
+     *
+     * @param rm le code
+     * @param probability la probabilité d'inverser un bit
+     * @return le résultat
+     */
+    public ErrorRate run(ReedMuller rm, double probability) {
+        if (!(probability >= 0.0 && probability <= 1.0)) {
+            throw new IllegalArgumentException("probability must be between 0.0 and 1.0");
+        }
+        int batchFrames = Math.max(1, BATCH_BITS / rm.getEndDim());
+        SplittableRandom seeds = new SplittableRandom(seed);
+        long frames = 0;
+        long frameErrors = 0;
+        long bitErrors = 0;
+        long start = System.nanoTime();
+        while (frames < maxFrames && !isPrecise(frames, frameErrors) && !isBelowFloor(frames, frameErrors)) {
+            List<ForkJoinTask<long[]>> round = new ArrayList<>();
+            for (int b = 0; b < ROUND_BATCHES && frames < maxFrames; b++) {
+                int size = (int) Math.min(batchFrames, maxFrames - frames);
+                long batchSeed = seeds.nextLong();
+                round.add(pool.submit(() -> simulate(rm, probability, size, batchSeed)));
+                frames += size;
+            }
+            for (ForkJoinTask<long[]> batch : round) {
+                long[] errors = batch.join();
+                frameErrors += errors[0];
+                bitErrors += errors[1];
+            }
+        }
+        return new ErrorRate(rm.getR(), probability, frames, frameErrors, bitErrors,
+                (long) rm.getStartDim() * frames, halfWidth(frames, frameErrors), System.nanoTime() - start);
+    }
+
+    /**
+     * Simule un lot de mots.
+     *
+     * @return le nombre de mots erronés et le nombre de bits erronés
+     */
+    private static long[] simulate(ReedMuller rm, double probability, int frames, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        BinarySymmetricChannel channel = new BinarySymmetricChannel(probability, random.split());
+        int bits = rm.getStartDim();
+        int[] messages = new int[frames];
+        int[] decoded = new int[frames];
+        for (int i = 0; i < frames; i++) {
+            messages[i] = random.nextInt() >>> (Integer.SIZE - bits);
+        }
+        if (rm.getR() <= ReedMuller.LONG_MAX_R) {
+            long[] words = new long[frames];
+            rm.encodeAll(messages, words);
+            rm.noiseAll(words, words, channel);
+            rm.fastSearchAll(words, decoded);
+        }
+        else {
+            long[] message = new long[1];
+            long[] result = new long[1];
+            for (int i = 0; i < frames; i++) {
+                message[0] = messages[i];
+                Word received = rm.noise(rm.encode(Word.fromLongs(message, 0, bits)), channel);
+                rm.fastSearch(received).toLongs(result, 0);
+                decoded[i] = (int) result[0];
+            }
+        }
+        long frameErrors = 0;
+        long bitErrors = 0;
+        for (int i = 0; i < frames; i++) {
+            int errors = Integer.bitCount(messages[i] ^ decoded[i]);
+            if (errors != 0) {
+                frameErrors++;
+                bitErrors += errors;
+            }
+        }
+        return new long[]{frameErrors, bitErrors};
+    }
+
+    /**
+     * Indique si l'intervalle de confiance du FER est assez étroit.
+     */
+    private boolean isPrecise(long frames, long frameErrors) {
+        return frameErrors >= MIN_FRAME_ERRORS
+                && halfWidth(frames, frameErrors) <= precision * frameErrors / frames;
+    }
+
+    /**
+     * Indique si la borne supérieure de l'intervalle de confiance du FER est
+     * sous le plancher. Sans erreur, c'est la borne de
+     * {@link #halfWidth(long, long)} (environ 3 / frames à 95 %) : un point
+     * sans erreur s'arrête donc après environ 3 / ferFloor mots.
+     */
+    private boolean isBelowFloor(long frames, long frameErrors) {
+        return frames > 0 && (double) frameErrors / frames + halfWidth(frames, frameErrors) < ferFloor;
+    }
+
+    /**
+     * Demi-largeur de l'intervalle de confiance du FER (approximation normale),
+     * ou borne supérieure de l'intervalle s'il n'y a eu aucune erreur.
+     */
+    private double halfWidth(long frames, long frameErrors) {
+        if (frames == 0) {
+            return 1.0;
+        }
+        if (frameErrors == 0) {
+            return -Math.log(1 - confidence) / frames;
+        }
+        double fer = (double) frameErrors / frames;
+        return z * Math.sqrt(fer * (1 - fer) / frames);
+    }
+
+    /**
+     * Quantile de la loi normale centrée réduite, par dichotomie.
+     *
+     * @param p la probabilité, entre 0 et 1
+     * @return x tel que P(X <= x) = p
+     */
+    static double quantile(double p) {
+        double low = -40;
+        double high = 40;
+        for (int i = 0; i < 100; i++) {
+            double middle = (low + high) / 2;
+            if (normalCdf(middle) < p) {
+                low = middle;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    /**
+     * Fonction de répartition de la loi normale centrée réduite
+     * (approximation d'Abramowitz et Stegun 7.1.26, erreur < 1.5e-7).
+     */
+    private static double normalCdf(double x) {
+        double t = 1 / (1 + 0.3275911 * Math.abs(x) / Math.sqrt(2));
+        double erfc = t * (0.254829592 + t * (-0.284496736 + t * (1.421413741
+                + t * (-1.453152027 + t * 1.061405429)))) * Math.exp(-x * x / 2);
+        return x >= 0 ? 1 - erfc / 2 : erfc / 2;
+    }
+
+    /**
+     * Résultat de la simulation d'un point (r, p).
+     */
+    public static class ErrorRate {
+        private final int r;
+        private final double probability;
+        private final long frames;
+        private final long frameErrors;
+        private final long bitErrors;
+        private final long bits;
+        private final double halfWidth;
+        private final long nanos;
+
+        ErrorRate(int r, double probability, long frames, long frameErrors, long bitErrors,
+                  long bits, double halfWidth, long nanos) {
+            this.r = r;
+            this.probability = probability;
+            this.frames = frames;
+            this.frameErrors = frameErrors;
+            this.bitErrors = bitErrors;
+            this.bits = bits;
+            this.halfWidth = halfWidth;
+            this.nanos = nanos;
+        }
+
+        public int getR() {
+            return r;
+        }
+
+        public double getProbability() {
+            return probability;
+        }
+
+        public long getFrames() {
+            return frames;
+        }
+
+        public long getFrameErrors() {
+            return frameErrors;
+        }
+
+        public long getBitErrors() {
+            return bitErrors;
+        }
+
+        /**
+         * Retourne le taux d'erreur par bit de message décodé.
+         *
+         * @return le BER
+         */
+        public double getBitErrorRate() {
+            return (double) bitErrors / bits;
+        }
+
+        /**
+         * Retourne le taux de mots décodés erronés.
+         *
+         * @return le FER
+         */
+        public double getFrameErrorRate() {
+            return (double) frameErrors / frames;
+        }
+
+        /**
+         * Retourne la demi-largeur de l'intervalle de confiance du FER, ou sa
+         * borne supérieure si aucun mot n'était erroné.
+         *
+         * @return la demi-largeur
+         */
+        public double getFrameErrorRateHalfWidth() {
+            return halfWidth;
+        }
+
+        /**
+         * Retourne le débit de la simulation.
+         *
+         * @return le nombre de mots simulés par seconde
+         */
+        public double getFramesPerSecond() {
+            return frames * 1e9 / Math.max(1, nanos);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("r=%d p=%.4g frames=%d BER=%.4g FER=%.4g +/-%.2g (%.3g mots/s)",
+                    r, probability, frames, getBitErrorRate(), getFrameErrorRate(), halfWidth,
+                    getFramesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package reedmuller;
+
+import static reedmuller.ReedMuller.LONG_MAX_R;
+import static reedmuller.ReedMuller.ROW_PATTERNS;
+
+/**
+ * Code de Reed-Muller RM(k, m) d'ordre quelconque k : les mots du code sont
+ * les évaluations, sur les 2^m points de {0,1}^m, des polynômes booléens en
+ * m variables de degré au plus k. Le point j a pour coordonnée i le bit i de j.
+ * <p>
+ * Chaque bit du message est le coefficient d'un monôme : d'abord ceux de degré
+ * 1 (x0, ..., xm-1), puis ceux de degré 2 à k, et enfin le monôme constant.
+ * RM(1, r) donne ainsi les mêmes mots que {@link ReedMuller} d'ordre r.
+ * L'encodage passe par la transformée de Möbius en O(m 2^m), le décodage par
+ * l'algorithme à logique majoritaire de Reed, qui corrige jusqu'à
+ * 2^(m-k-1) - 1 erreurs.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+public class HigherOrderReedMuller {
+    private final int k;
+    private final int m;
+    private final int startDim;
+    private final int endDim;
+    // monôme de chaque bit du message : le masque de ses variables
+    private final int[] monomials;
+    // premier bit du message de chaque degré 1 à k, puis celui du monôme constant
+    private final int[] degreeStart;
+
+    /**
+     * Construit un code de Reed-Muller RM(k, m).
+     *
+     * @param k le degré maximal des polynômes
+     * @param m le nombre de variables, les mots du code font 2^m bits
+     */
+    public HigherOrderReedMuller(int k, int m) {
+        if (m < 0 || m > 30) {
+            throw new IllegalArgumentException("m must be between 0 and 30");
+        }
+        if (k < 0 || k > m) {
+            throw new IllegalArgumentException("k must be between 0 and m");
+        }
+        this.k = k;
+        this.m = m;
+        endDim = 1 << m;
+        long dimension = 0;
+        long binomial = 1;
+        for (int d = 0; d <= k; d++) {
+            dimension += binomial;
+            binomial = binomial * (m - d) / (d + 1);
+        }
+        if (dimension > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The code's dimension is too large");
+        }
+        startDim = (int) dimension;
+        monomials = new int[startDim];
+        degreeStart = new int[k + 2];
+        int row = 0;
+        for (int d = 1; d <= k; d++) {
+            degreeStart[d] = row;
+            // masques à d bits dans l'ordre croissant (astuce de Gosper)
+            for (int s = (1 << d) - 1; s < endDim; ) {
+                monomials[row++] = s;
+                int lowest = s & -s;
+                int ripple = s + lowest;
+                s = (((ripple ^ s) >>> 2) / lowest) | ripple;
+            }
+        }
+        degreeStart[k + 1] = row;
+        monomials[row] = 0;
+    }
+
+    /**
+     * Retourne le premier bit du message dont le monôme est de degré d.
+     *
+     * @param d le degré
+     * @return le premier bit
+     */
+    private int firstRow(int d) {
+        return d == 0 ? startDim - 1 : degreeStart[d];
+    }
+
+    /**
+     * Retourne le bit du message suivant le dernier dont le monôme est de degré d.
+     *
+     * @param d le degré
+     * @return la fin des bits de degré d (exclue)
+     */
+    private int endRow(int d) {
+        return d == 0 ? startDim : degreeStart[d + 1];
+    }
+
+    /**
+     * Retourne le degré maximal des polynômes.
+     *
+     * @return l'ordre k du code
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Retourne le nombre de variables.
+     *
+     * @return m
+     */
+    public int getM() {
+        return m;
+    }
+
+    /**
+     * Retourne la taille des messages (la dimension du code).
+     *
+     * @return la taille d'un message
+     */
+    public int getStartDim() {
+        return startDim;
+    }
+
+    /**
+     * Retourne la taille des mots du code, 2^m.
+     *
+     * @return la taille d'un mot codé
+     */
+    public int getEndDim() {
+        return endDim;
+    }
+
+    /**
+     * Retourne la distance minimale du code, 2^(m-k).
+     *
+     * @return la distance minimale
+     */
+    public int getMinimumDistance() {
+        return 1 << (m - k);
+    }
+
+    /**
+     * Retourne le nombre d'erreurs que le décodage corrige à coup sûr.
+     *
+     * @return le nombre d'erreurs corrigibles
+     */
+    public int getCorrectableErrors() {
+        return (getMinimumDistance() - 1) / 2;
+    }
+
+    /**
+     * Encode un message.
+     *
+     * @param word le message, de taille startDim
+     * @return le mot codé
+     */
+    public Word encode(Word word) {
+        if (word.size() != startDim) {
+            throw new IllegalArgumentException("The word's length is false (good length = " + startDim + ")");
+        }
+        long[] coefficients = new long[Word.longsFor(endDim)];
+        for (int row = 0; row < startDim; row++) {
+            if (word.get(row) == 1) {
+                coefficients[monomials[row] >>> 6] |= 1L << monomials[row];
+            }
+        }
+        moebius(coefficients);
+        return new Word(coefficients, endDim);
+    }
+
+    /**
+     * Encode un message, pour m <= 6 (un mot du code tient dans un long).
+     *
+     * @param message le message, ses startDim bits de poids faible
+     * @return le mot codé, le bit j du long étant le bit j du mot
+     */
+    public long encode(long message) {
+        checkLong();
+        if (startDim < Long.SIZE && message >>> startDim != 0) {
+            throw new IllegalArgumentException("The message must fit in " + startDim + " bits");
+        }
+        long coefficients = 0;
+        for (int row = 0; row < startDim; row++) {
+            coefficients |= (message >>> row & 1) << monomials[row];
+        }
+        return moebius(coefficients);
+    }
+
+    /**
+     * Décode un mot reçu selon l'algorithme à logique majoritaire de Reed.
+     *
+     * @param word le mot reçu, de taille endDim
+     * @return le message décodé
+     */
+    public Word decode(Word word) {
+        if (word.size() != endDim) {
+            throw new IllegalArgumentException("The word's length is false (good length = " + endDim + ")");
+        }
+        long[] received = word.words().clone();
+        long[] folded = new long[received.length];
+        long[] found = new long[received.length];
+        Word message = new Word(startDim);
+        for (int d = k; d >= 0; d--) {
+            for (int row = firstRow(d); row < endRow(d); row++) {
+                int s = monomials[row];
+                System.arraycopy(received, 0, folded, 0, received.length);
+                if (vote(folded, s, d)) {
+                    message.set(row, 1);
+                    found[s >>> 6] |= 1L << s;
+                }
+            }
+            // retire la contribution des monômes de degré d trouvés
+            moebius(found);
+            for (int w = 0; w < received.length; w++) {
+                received[w] ^= found[w];
+                found[w] = 0;
+            }
+        }
+        return message;
+    }
+
+    /**
+     * Décode un mot reçu selon l'algorithme à logique majoritaire de Reed,
+     * pour m <= 6.
+     *
+     * @param word le mot reçu, le bit j du long étant le bit j du mot
+     * @return le message décodé, dans les startDim bits de poids faible
+     */
+    public long decode(long word) {
+        checkLong();
+        if (endDim < Long.SIZE && word >>> endDim != 0) {
+            throw new IllegalArgumentException("The word's length is false (good length = " + endDim + ")");
+        }
+        long message = 0;
+        for (int d = k; d >= 0; d--) {
+            long found = 0;
+            for (int row = firstRow(d); row < endRow(d); row++) {
+                int s = monomials[row];
+                long folded = word;
+                long positions = endDim == Long.SIZE ? -1L : (1L << endDim) - 1;
+                for (int i = 0; i < m; i++) {
+                    if ((s >>> i & 1) != 0) {
+                        folded ^= folded >>> (1 << i);
+                        positions &= ~ROW_PATTERNS[i];
+                    }
+                }
+                if (2 * Long.bitCount(folded & positions) > 1 << (m - d)) {
+                    message |= 1L << row;
+                    found |= 1L << s;
+                }
+            }
+            word ^= moebius(found);
+        }
+        return message;
+    }
+
+    /**
+     * Vote à la majorité pour le coefficient du monôme s de degré d. Chacun
+     * des 2^(m-d) sous-cubes où seules les variables de s varient donne la
+     * somme du mot sur ce sous-cube, égale au coefficient en l'absence
+     * d'erreur une fois les monômes de degré supérieur retirés.
+     *
+     * @param folded une copie du mot reçu, modifiée
+     * @param s le masque des variables du monôme
+     * @param d le degré du monôme
+     * @return le coefficient élu
+     */
+    private boolean vote(long[] folded, int s, int d) {
+        // replie le mot sur chaque variable de s : le point j sans ces
+        // variables reçoit la somme de son sous-cube
+        long positions = endDim >= Long.SIZE ? -1L : (1L << endDim) - 1;
+        for (int i = 0; i < m; i++) {
+            if ((s >>> i & 1) == 0) {
+                continue;
+            }
+            if (i < 6) {
+                for (int w = 0; w < folded.length; w++) {
+                    folded[w] ^= folded[w] >>> (1 << i);
+                }
+                positions &= ~ROW_PATTERNS[i];
+            }
+            else {
+                int step = 1 << (i - 6);
+                for (int w = 0; w < folded.length; w++) {
+                    if ((w & step) == 0) {
+                        folded[w] ^= folded[w | step];
+                    }
+                }
+            }
+        }
+        int votes = 0;
+        for (int w = 0; w < folded.length; w++) {
+            if ((w & (s >>> 6)) == 0) {
+                votes += Long.bitCount(folded[w] & positions);
+            }
+        }
+        return 2 * votes > 1 << (m - d);
+    }
+
+    /**
+     * Transformée de Möbius binaire sur place : passe des coefficients des
+     * monômes (le bit s pour le monôme de variables s) aux valeurs du
+     * polynôme en chaque point. Elle est sa propre inverse.
+     *
+     * @param f les coefficients, remplacés par les valeurs
+     */
+    private void moebius(long[] f) {
+        for (int i = 0; i < m; i++) {
+            if (i < 6) {
+                for (int w = 0; w < f.length; w++) {
+                    f[w] ^= (f[w] << (1 << i)) & ROW_PATTERNS[i];
+                }
+            }
+            else {
+                int step = 1 << (i - 6);
+                for (int w = 0; w < f.length; w++) {
+                    if ((w & step) != 0) {
+                        f[w] ^= f[w ^ step];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Transformée de Möbius binaire d'un mot tenant dans un long.
+     *
+     * @param f les coefficients
+     * @return les valeurs
+     */
+    private long moebius(long f) {
+        for (int i = 0; i < m; i++) {
+            f ^= (f << (1 << i)) & ROW_PATTERNS[i];
+        }
+        return f;
+    }
+
+    private void checkLong() {
+        if (m > LONG_MAX_R) {
+            throw new IllegalArgumentException("The code's words don't fit in a long (m must be " + LONG_MAX_R + " or less)");
+        }
+    }
+}
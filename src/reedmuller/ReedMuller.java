@@ -1,12 +1,10 @@
 package reedmuller;
 
-import java.math.BigInteger;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import static java.lang.Math.*;
-import static reedmuller.Bit.add;
-import static reedmuller.Bit.mult;
-import static reedmuller.Word.bigIntToWord;
-import static reedmuller.Word.wordToBigInt;
 
 /**
  * Classe implémentant les algorithmes de Reed Muller.
@@ -16,12 +14,32 @@ import static reedmuller.Word.wordToBigInt;
  */
 public class ReedMuller {
 	private static final boolean DEBUG_RM = false;
+	// motif de la ligne i de G (i < 6) dans chaque long : le bit j vaut le bit i de j
+	static final long[] ROW_PATTERNS = {
+			0xAAAAAAAAAAAAAAAAL, 0xCCCCCCCCCCCCCCCCL, 0xF0F0F0F0F0F0F0F0L,
+			0xFF00FF00FF00FF00L, 0xFFFF0000FFFF0000L, 0xFFFFFFFF00000000L
+	};
+	// ordre maximal pour lequel tous les mots du code sont précalculés
+	private static final int CODEBOOK_MAX_R = 8;
+	// ordre maximal pour lequel un mot codé tient dans un long
+	static final int LONG_MAX_R = 6;
+	// ordre maximal pour lequel le décodage de tous les mots reçus possibles est précalculé
+	static final int LOOKUP_MAX_R = 4;
 
-    private Word g[];
-    private int h[][];
-    private Integer r;
-    private Integer startDim;
-    private Integer endDim;
+    // codes partagés, un par ordre, construits à la première demande
+    private static final AtomicReferenceArray<ReedMuller> CODES = new AtomicReferenceArray<>(31);
+
+    private final Word g[];
+    private final long codebook[];
+    private final int stride;
+    // construite à la première utilisation ; sans verrou, deux threads peuvent la
+    // calculer tous les deux, mais avec le même contenu
+    private volatile byte lookup[];
+    // recherche par lots vectorisée, null si l'API Vector n'est pas disponible
+    private static final BatchSearch VECTOR_SEARCH = loadVectorSearch();
+    private final int r;
+    private final int startDim;
+    private final int endDim;
 
     private void printG() {
 	    for (int i = 0; i < startDim; i++) {
@@ -29,56 +47,109 @@ public class ReedMuller {
 	    }
     }
 
-    private void printH() {
-	    for (int i = 0; i < endDim; i++) {
-		    for (int j = 0; j < endDim; j++) {
-			    System.out.print(h[i][j] + "\t");
-		    }
-		    System.out.println();
-	    }
+    /**
+     * Charge la recherche vectorisée si le module jdk.incubator.vector est
+     * présent (option --add-modules) et qu'elle n'est pas désactivée par
+     * -Dreedmuller.vector=false.
+     *
+     * @return la recherche vectorisée ou null
+     */
+    private static BatchSearch loadVectorSearch() {
+        if (!Boolean.parseBoolean(System.getProperty("reedmuller.vector", "true"))) {
+            return null;
+        }
+        try {
+            return (BatchSearch) Class.forName("reedmuller.VectorBatchSearch").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
     }
 
     /**
-     * Construit un code ReedMuller d'ordre r.
+     * Retourne le code ReedMuller d'ordre r partagé. Il est construit à la
+     * première demande, puis le même est retourné à tous les appelants : un
+     * code n'est plus modifié après sa construction, il peut être utilisé par
+     * plusieurs threads à la fois.
+     *
+     * @param r l'ordre du code
+     * @return le code d'ordre r
+     */
+    public static ReedMuller of(int r) {
+        if (r < 0 || r > 30) {
+            throw new IllegalArgumentException("r must be between 0 and 30");
+        }
+        ReedMuller code = CODES.get(r);
+        if (code == null) {
+            // si deux threads le construisent en même temps, le premier arrivé gagne
+            CODES.compareAndSet(r, null, new ReedMuller(r));
+            code = CODES.get(r);
+        }
+        return code;
+    }
+
+    /**
+     * Construit un code ReedMuller d'ordre r. Préférer {@link #of(int)}, qui
+     * évite de reconstruire les tables.
      *
      * @param r l'ordre du code
      */
     public ReedMuller(int r) {
+        if (r < 0 || r > 30) {
+            throw new IllegalArgumentException("r must be between 0 and 30");
+        }
         this.r = r;
         startDim = r + 1;
-        endDim = (int) (pow(2, r));
-        buildG();
-        h = buildH(r);
-        // imprime les matrices G et H en mode debug
+        endDim = 1 << r;
+        stride = Word.longsFor(endDim);
+        g = buildG();
+        codebook = r <= CODEBOOK_MAX_R ? buildCodebook() : null;
+        // imprime la matrice G en mode debug
         if (DEBUG_RM) {
 	        printG();
-	        printH();
         }
     }
 
     /**
      * Construit la matrice G pour encoder les mots.
+     *
+     * @return les lignes de G
      */
-    private void buildG() {
-        Bit temp = new Bit(0);
-        g = new Word[startDim];
-        int alternating = 0;
+    private Word[] buildG() {
+        Word[] g = new Word[startDim];
 
+        // la ligne i alterne des paquets de 2^i zéros et de 2^i uns :
+        // motif fixe dans chaque long pour i < 6, longs entiers à 0 ou à 1 au-delà
         for (int i = 0; i < r; i++) {
             g[i] = new Word(endDim);
-            for (int j = 0; j < endDim; j++) {
-                g[i].at(j, temp);
-                alternating++;
-                if (alternating == (int) pow(2, i)) {
-                    temp = temp.not();
-                    alternating = 0;
-                }
+            long[] row = g[i].words();
+            for (int w = 0; w < row.length; w++) {
+                row[w] = i < 6 ? ROW_PATTERNS[i] : -((w >>> (i - 6)) & 1L);
+            }
+            if (endDim < 64) {
+                row[0] &= (1L << endDim) - 1;
             }
         }
-        g[r] = new Word(endDim);
-        for (int i = 0; i < endDim; i++) {
-            g[r].at(i, new Bit(1));
+        g[r] = Word.allWordAt(new Bit(1), endDim);
+        return g;
+    }
+
+    /**
+     * Précalcule les 2^(r+1) mots du code, à la suite les uns des autres
+     * (stride long par mot). Le mot de m est celui de m sans son bit de
+     * poids faible à 1, xoré avec la ligne de G correspondant à ce bit.
+     *
+     * @return les mots du code
+     */
+    private long[] buildCodebook() {
+        long[] codebook = new long[(1 << startDim) * stride];
+        for (int m = 1; m < 1 << startDim; m++) {
+            int previous = (m & (m - 1)) * stride;
+            long[] row = g[Integer.numberOfTrailingZeros(m)].words();
+            for (int w = 0; w < stride; w++) {
+                codebook[m * stride + w] = codebook[previous + w] ^ row[w];
+            }
         }
+        return codebook;
     }
 
 	/**
@@ -86,7 +157,7 @@ public class ReedMuller {
 	 *
 	 * @return l'ordre du code
 	 */
-	public Integer getR() {
+	public int getR() {
 		return r;
 	}
 
@@ -118,16 +189,54 @@ public class ReedMuller {
         if (word.size() != startDim) {
             throw new IllegalArgumentException("The word's length is false (good length = " + startDim + ")");
         }
+        if (CodecMetrics.enabled()) {
+            CodecMetrics.wordsEncoded(1);
+        }
+        return codeword((int) word.words()[0]);
+    }
+
+    /**
+     * Retourne le mot du code d'indice donné : copié du dictionnaire s'il
+     * existe, somme des lignes de G correspondant aux bits de l'indice sinon.
+     *
+     * @param index l'indice, le message sous forme d'entier
+     * @return un nouveau mot
+     */
+    private Word codeword(int index) {
         Word wordEncoded = new Word(endDim);
-        for (int i = 0; i < endDim; i++) {
-            wordEncoded.at(i, new Bit(0));
-            for (int j = 0; j < startDim; j++) {
-                wordEncoded.at(i, add(mult(word.at(j), g[j].at(i)), wordEncoded.at(i)));
+        if (codebook != null) {
+            System.arraycopy(codebook, index * stride, wordEncoded.words(), 0, stride);
+            return wordEncoded;
+        }
+        for (int j = 0; j < startDim; j++) {
+            if ((index >>> j & 1) == 1) {
+                wordEncoded.xor(g[j]);
             }
         }
         return wordEncoded;
     }
 
+    /**
+     * Retourne le mot codé d'un message donné sous forme d'entier, pour les
+     * codes dont les mots tiennent dans un long (r <= 6). Un simple accès
+     * au tableau des mots du code.
+     *
+     * @param message le message, entre 0 et 2^(r+1) - 1
+     * @return le mot codé, le bit i du long étant le bit i du mot
+     */
+    public long encode(int message) {
+        if (r > LONG_MAX_R) {
+            throw new IllegalArgumentException("The code's words don't fit in a long (r must be " + LONG_MAX_R + " or less)");
+        }
+        if (message < 0 || message >= 1 << startDim) {
+            throw new IllegalArgumentException("The message must be between 0 and " + ((1 << startDim) - 1));
+        }
+        if (CodecMetrics.enabled()) {
+            CodecMetrics.wordsEncoded(1);
+        }
+        return codebook[message];
+    }
+
     /**
      * Retourne un mot décodé selon l'algo.
      *
@@ -138,21 +247,55 @@ public class ReedMuller {
 		if (word.size() != endDim) {
 			throw new IllegalArgumentException("The word's length is false (good length = " + endDim + ")");
 		}
+		if (CodecMetrics.enabled()) {
+			CodecMetrics.wordsDecoded(1);
+		}
 		Word wordDecoded = new Word(startDim);
-		Bit xR = new Bit(word.at(0));
-		wordDecoded.at(r, xR);
+		int xR = word.get(0);
+		wordDecoded.set(r, xR);
 
-		Word w = new Word(endDim);
-		for (int i = 0; i < endDim; i++) {
-			w.at(i, add(mult(xR, g[r].at(i)), word.at(i)));
-		}
+		// g[r] ne contient que des 1, retirer xR * g[r] revient à inverser les bits si xR = 1
 		for (int i = 0; i < r; i++) {
-			wordDecoded.at(i, w.at((int) pow(2, i)));
+			wordDecoded.set(i, word.get(1 << i) ^ xR);
 		}
 
 		return wordDecoded;
 	}
 
+    /**
+     * Retourne le décodage d'un mot codé tenant dans un long (r <= 6).
+     *
+     * @param word le mot codé, le bit i du long étant le bit i du mot
+     * @return le mot décodé, entre 0 et 2^(r+1) - 1
+     */
+    public int decode(long word) {
+        checkLong(word);
+        if (CodecMetrics.enabled()) {
+            CodecMetrics.wordsDecoded(1);
+        }
+        int xR = (int) word & 1;
+        int decoded = xR << r;
+        for (int i = 0; i < r; i++) {
+            decoded |= ((int) (word >>> (1 << i)) & 1 ^ xR) << i;
+        }
+        return decoded;
+    }
+
+    /**
+     * Vérifie que les mots du code tiennent dans un long et que le mot donné
+     * n'a pas de bit au-delà de 2^r.
+     *
+     * @param word un mot codé
+     */
+    private void checkLong(long word) {
+        if (r > LONG_MAX_R) {
+            throw new IllegalArgumentException("The code's words don't fit in a long (r must be " + LONG_MAX_R + " or less)");
+        }
+        if (endDim < Long.SIZE && word >>> endDim != 0) {
+            throw new IllegalArgumentException("The word's length is false (good length = " + endDim + ")");
+        }
+    }
+
     /**
      * Bruite les bits d'un mot donné (normalement encodé) selon une probabilité.
      *
@@ -161,59 +304,58 @@ public class ReedMuller {
      * @return le mot bruité
      */
     public Word noise(Word good, double probability) {
-        if (probability < 0.0 && probability >= 1.0) {
-            throw new IllegalArgumentException("probability must be between 0.0 and 1.0");
-        }
-        Word noised = new Word(good);
-        for (int i = 0; i < good.size(); i++) {
-            if (random() < probability) {
-                noised.at(i, noised.at(i).not());
-            }
-        }
-        return noised;
+        return noise(good, new BinarySymmetricChannel(probability, ThreadLocalRandom.current().nextLong()));
     }
 
     /**
-     * Calcule la distance de Hamming entre deux bits.
+     * Bruite les bits d'un mot donné selon une probabilité, en tirant les
+     * nombres aléatoires dans le générateur fourni (reproductible si celui-ci
+     * est initialisé avec une graine).
      *
-     * @param one le 1er bit
-     * @param two le 2ème bit
-     * @return la distance de Hamming entre deux bits
+     * @param good un mot
+     * @param probability la probabilité de bruiter un bit courant
+     * @param random le générateur à utiliser
+     * @return le mot bruité
      */
-	private static int hammingDistance(Bit one, Bit two) {
-        return one.equals(two) ? 0 : 1;
+    public Word noise(Word good, double probability, SplittableRandom random) {
+        return noise(good, new BinarySymmetricChannel(probability, random));
     }
 
     /**
-     * Calcule la distance de Hamming entre deux mots (bit à bit).
+     * Bruite les bits d'un mot donné en le transmettant sur un canal.
      *
-     * @param one le 1er mot
-     * @param two le 2ème mot
-     * @return la distance de Hamming entre deux mots
+     * @param good un mot
+     * @param channel le canal
+     * @return le mot bruité
      */
-    private static int hammingDistance(Word one, Word two) {
-        if (one.size() != two.size()) {
-            throw new IllegalArgumentException("The length's words must be the same");
-        }
-        int res = 0;
-        for (int i = 0; i < one.size(); i++) {
-            res += hammingDistance(one.at(i), two.at(i));
-        }
-        return res;
+    public Word noise(Word good, BinarySymmetricChannel channel) {
+        return channel.transmit(good);
+    }
+
+    /**
+     * Bruite les bits d'un mot tenant dans un long (r <= 6), en tirant les
+     * nombres aléatoires dans le générateur fourni.
+     *
+     * @param good le mot, le bit i du long étant le bit i du mot
+     * @param probability la probabilité de bruiter un bit courant
+     * @param random le générateur à utiliser
+     * @return le mot bruité
+     */
+    public long noise(long good, double probability, SplittableRandom random) {
+        return noise(good, new BinarySymmetricChannel(probability, random));
     }
 
     /**
-     * Calcule la transformation F d'un mot bruité.
+     * Bruite les bits d'un mot tenant dans un long (r <= 6) en le
+     * transmettant sur un canal.
      *
-     * @param valid un mot du code, codé
-     * @param noised un mot reçu, bruité
-     * @return la transformation F d'un mot bruité
+     * @param good le mot, le bit i du long étant le bit i du mot
+     * @param channel le canal
+     * @return le mot bruité
      */
-    private int transformationF(Word valid, Word noised) {
-        if (valid.size() != endDim && noised.size() != endDim) {
-            throw new IllegalArgumentException("The word's length is false (good length = " + endDim + ")");
-        }
-        return endDim - 2 * hammingDistance(valid, noised);
+    public long noise(long good, BinarySymmetricChannel channel) {
+        checkLong(good);
+        return channel.transmit(good, endDim);
     }
 
     /**
@@ -226,73 +368,231 @@ public class ReedMuller {
         if (noised.size() != endDim) {
             throw new IllegalArgumentException("The word's length is false (good length = " + endDim + ")");
         }
+        long[] received = noised.words();
+        int best;
+        if (r <= LOOKUP_MAX_R) {
+            // même mot du code, mêmes égalités départagées, que la recherche rapide
+            best = lookupTable()[(int) received[0]];
+        }
+        else {
+            best = r <= CODEBOOK_MAX_R ? nearestInCodebook(received) : nearestByGrayCode(received);
+        }
+        Word word = codeword(best);
+        if (CodecMetrics.enabled()) {
+            record(received, word.words(), null);
+        }
+        return word;
+    }
+
+    /**
+     * Recherche semi-exhaustive dans le dictionnaire des mots du code : les
+     * 2^r premiers mots sont comparés au mot reçu (XOR et popcount), leurs
+     * compléments s'en déduisent par le signe de la corrélation.
+     *
+     * @param received les bits du mot reçu
+     * @return l'indice du mot du code le plus proche (le premier en cas d'égalité)
+     */
+    private int nearestInCodebook(long[] received) {
         int min = Integer.MAX_VALUE;
-        int tempMin;
-        Word word = new Word(startDim);
-        Word tempWord = Word.allWordAt(new Bit(0), startDim);
-        BigInteger brLike = new BigInteger(endDim.toString());
-        int f;
+        int best = 0;
         for (int i = 0; i < endDim; i++) {
-            f = transformationF(encode(tempWord), noised);
-            tempMin = f >= 0 ? (endDim - f) / 2 : (endDim + f) / 2;
+            int distance = 0;
+            for (int w = 0; w < stride; w++) {
+                distance += Long.bitCount(codebook[i * stride + w] ^ received[w]);
+            }
+            int f = endDim - 2 * distance;
+            int tempMin = (endDim - abs(f)) / 2;
             if (min > tempMin) {
                 min = tempMin;
-                if (f < 0) {
-                    word = bigIntToWord(brLike.add(wordToBigInt(tempWord)));
+                best = f < 0 ? i + endDim : i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Recherche semi-exhaustive sans dictionnaire (r > 8) : les 2^r premiers
+     * mots du code sont parcourus dans l'ordre du code de Gray, chacun
+     * obtenu du précédent en xorant une ligne de G dans un seul tampon. Les
+     * égalités sont départagées par l'indice, comme dans l'ordre croissant.
+     *
+     * @param received les bits du mot reçu
+     * @return l'indice du mot du code le plus proche (le premier en cas d'égalité)
+     */
+    private int nearestByGrayCode(long[] received) {
+        long[] candidate = new long[received.length];
+        int min = Integer.MAX_VALUE;
+        int best = 0;
+        for (int step = 0; step < endDim; step++) {
+            if (step > 0) {
+                long[] row = g[Integer.numberOfTrailingZeros(step)].words();
+                for (int w = 0; w < candidate.length; w++) {
+                    candidate[w] ^= row[w];
                 }
-                else {
-                    word = tempWord;
+            }
+            int i = step ^ (step >>> 1);
+            int distance = 0;
+            for (int w = 0; w < candidate.length; w++) {
+                distance += Long.bitCount(candidate[w] ^ received[w]);
+            }
+            int f = endDim - 2 * distance;
+            int tempMin = (endDim - abs(f)) / 2;
+            if (min > tempMin || min == tempMin && i < (best & (endDim - 1))) {
+                min = tempMin;
+                best = f < 0 ? i + endDim : i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Débruite selon la recherche semi-exhaustive un mot reçu tenant dans un
+     * long (r <= 6), en parcourant les mots du code précalculés.
+     *
+     * @param noised le mot reçu, le bit i du long étant le bit i du mot
+     * @return le mot du code le plus proche
+     */
+    public long semiExhaustiveSearch(long noised) {
+        checkLong(noised);
+        long codeword = nearest(noised);
+        if (CodecMetrics.enabled()) {
+            record(noised, codeword);
+        }
+        return codeword;
+    }
+
+    /**
+     * Recherche semi-exhaustive d'un mot tenant dans un long, sans vérification.
+     *
+     * @param noised le mot reçu
+     * @return le mot du code le plus proche
+     */
+    private long nearest(long noised) {
+        if (r <= LOOKUP_MAX_R) {
+            return codebook[lookupTable()[(int) noised]];
+        }
+        int min = Integer.MAX_VALUE;
+        int best = 0;
+        for (int i = 0; i < endDim; i++) {
+            int f = endDim - 2 * Long.bitCount(codebook[i] ^ noised);
+            int tempMin = (endDim - abs(f)) / 2;
+            if (min > tempMin) {
+                min = tempMin;
+                best = f < 0 ? i + endDim : i;
+            }
+        }
+        return codebook[best];
+    }
+
+    /**
+     * Transformée de Walsh-Hadamard rapide, sur place. Équivaut au produit
+     * de f par la matrice de Hadamard de taille f.length (une puissance de 2)
+     * en O(n log n), sans construire la matrice.
+     *
+     * @param f le vecteur à transformer
+     */
+    static void fastWalshHadamard(int[] f) {
+        for (int half = 1; half < f.length; half <<= 1) {
+            for (int i = 0; i < f.length; i += half << 1) {
+                for (int j = i; j < i + half; j++) {
+                    int a = f[j];
+                    int b = f[j + half];
+                    f[j] = a + b;
+                    f[j + half] = a - b;
                 }
             }
-            tempWord = tempWord.plusOne();
         }
+    }
 
-        return encode(word);
+    /**
+     * Retourne l'indice du mot du code le plus proche à partir de la
+     * transformée fHat : le premier maximum de |fHat|, complété par le bit r
+     * si la corrélation est négative.
+     *
+     * @param fHat la transformée de Walsh-Hadamard du mot reçu
+     * @return le mot décodé sous forme d'entier
+     */
+    private int bestIndex(int[] fHat) {
+        int max = Integer.MIN_VALUE;
+        int index = 0;
+        for (int i = 0; i < fHat.length; i++) {
+            if (abs(fHat[i]) > max) {
+                max = abs(fHat[i]);
+                index = i;
+            }
+        }
+        return fHat[index] < 0 ? index + endDim : index;
     }
 
-	/**
-	 * Construit la matrice H. Récursive.
-	 *
-	 * @param r l'ordre courant
-	 * @return la mtrice H
-	 */
-	private int[][] buildH(int r) {
-    	if (r == 1) {
-		    int tempH[][] = new int[2][2];
-			tempH[0][0] = 1;
-		    tempH[0][1] = 1;
-		    tempH[1][0] = 1;
-		    tempH[1][1] = -1;
-		    return tempH;
-		}
-		else {
-    		int size = (int) pow(2, r);
-    		int subH[][] = buildH(r - 1);
-		    int tempH[][] = new int[size][size];
-
-		    for (int i = 0; i < size / 2; i++) {
-			    for (int j = 0; j < size / 2; j++) {
-				    tempH[i][j] = subH[i][j];
-			    }
-		    }
-            for (int i = 0; i < size; i++) {
-                for (int j = size / 2; j < size; j++) {
-                    tempH[i][j] = subH[i % (size / 2)][j % (size / 2)];
+    /**
+     * Transformée de Walsh-Hadamard rapide sur place, sur des valeurs souples.
+     *
+     * @param f les valeurs, de taille puissance de 2
+     */
+    static void fastWalshHadamard(float[] f) {
+        for (int half = 1; half < f.length; half <<= 1) {
+            for (int i = 0; i < f.length; i += half << 1) {
+                for (int j = i; j < i + half; j++) {
+                    float a = f[j];
+                    float b = f[j + half];
+                    f[j] = a + b;
+                    f[j + half] = a - b;
                 }
             }
-		    for (int i = size / 2; i < size; i++) {
-			    for (int j = 0; j < size / 2; j++) {
-				    tempH[i][j] = subH[i % (size / 2)][j];
-			    }
-		    }
-		    for (int i = size / 2; i < size; i++) {
-			    for (int j = size / 2; j < size; j++) {
-				    tempH[i][j] = -subH[i % (size / 2)][j % (size / 2)];
-			    }
-		    }
-
-		    return tempH;
-		}
+        }
+    }
+
+    /**
+     * Retourne le mot décodé correspondant à la plus grande valeur absolue
+     * d'une transformée sur des valeurs souples (la première en cas d'égalité).
+     *
+     * @param fHat la transformée
+     * @return le mot décodé
+     */
+    private int bestIndex(float[] fHat) {
+        float max = -1;
+        int index = 0;
+        for (int i = 0; i < fHat.length; i++) {
+            if (abs(fHat[i]) > max) {
+                max = abs(fHat[i]);
+                index = i;
+            }
+        }
+        return fHat[index] < 0 ? index + endDim : index;
+    }
+
+    /**
+     * Recherche rapide sur un mot reçu tenant dans un long.
+     *
+     * @param noised le mot reçu
+     * @param fHat un tableau de travail de taille endDim
+     * @return le mot décodé sous forme d'entier
+     */
+    private int search(long noised, int[] fHat) {
+        for (int i = 0; i < endDim; i++) {
+            fHat[i] = 1 - 2 * (int) ((noised >>> i) & 1);
+        }
+        fastWalshHadamard(fHat);
+        return bestIndex(fHat);
+    }
+
+    /**
+     * Retourne la table de décodage des 2^(2^r) mots reçus possibles, la
+     * construit au premier appel (r <= 4, au plus 65536 entrées).
+     *
+     * @return la table, indicée par le mot reçu
+     */
+    private byte[] lookupTable() {
+        byte[] table = lookup;
+        if (table == null) {
+            table = new byte[1 << endDim];
+            int[] fHat = new int[endDim];
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (byte) search(i, fHat);
+            }
+            lookup = table;
+        }
+        return table;
     }
 
     /**
@@ -304,27 +604,377 @@ public class ReedMuller {
     public Word fastSearch(Word noised) {
         if (noised.size() != endDim) {
             throw new IllegalArgumentException("The word's length is false (good length = " + endDim + ")");
+        }
+        Word decoded = new Word(startDim);
+        if (r <= LOOKUP_MAX_R) {
+            decoded.words()[0] = lookupTable()[(int) noised.words()[0]];
+            if (CodecMetrics.enabled()) {
+                CodecMetrics.wordsDecoded(1);
+                record(noised.words(), codeword((int) decoded.words()[0]).words(), null);
+            }
+            return decoded;
         }
 		int fHat[] = new int[endDim];
-		int f[] = new int[endDim];
-		int max = Integer.MIN_VALUE;
-		Integer index = 0;
-
 	    for (int i = 0; i < endDim; i++) {
-		    f[i] = (int) pow(-1, noised.at(i).v());
+		    fHat[i] = 1 - 2 * noised.get(i);
 	    }
+	    fastWalshHadamard(fHat);
 
-	    for (int i = 0; i < endDim; i++) {
-		    for (int j = 0; j < endDim; j++) {
-			    fHat[i] += f[j] * h[j][i];
-		    }
-		    if (abs(fHat[i]) > max) {
-		    	max = abs(fHat[i]);
-		    	index = i;
-		    }
-	    }
+        decoded.words()[0] = bestIndex(fHat);
+        if (CodecMetrics.enabled()) {
+            CodecMetrics.wordsDecoded(1);
+            record(noised.words(), codeword((int) decoded.words()[0]).words(), fHat);
+        }
+        return decoded;
+    }
+
+    /**
+     * Débruite et décode selon la recherche rapide un mot reçu tenant dans un
+     * long (r <= 6). Pour r <= 4, une simple lecture dans la table de décodage.
+     *
+     * @param noised le mot reçu, le bit i du long étant le bit i du mot
+     * @return le mot décodé, entre 0 et 2^(r+1) - 1
+     */
+    public int fastSearch(long noised) {
+        checkLong(noised);
+        int decoded = r <= LOOKUP_MAX_R ? lookupTable()[(int) noised] : search(noised, new int[endDim]);
+        if (CodecMetrics.enabled()) {
+            CodecMetrics.wordsDecoded(1);
+            record(noised, codebook[decoded]);
+        }
+        return decoded;
+    }
+
+    /**
+     * Débruite et décode selon la recherche rapide un mot reçu sous forme de
+     * valeurs souples (décision douce) : une valeur par bit, positive si le
+     * bit est plus probablement 0, négative s'il est plus probablement 1, et
+     * d'autant plus grande en valeur absolue que le bit est fiable (par
+     * exemple un LLR ou un échantillon du démodulateur). Avec des valeurs
+     * +1/-1, le résultat est celui de la recherche rapide sur les bits.
+     *
+     * @param soft les endDim valeurs souples du mot reçu
+     * @return le mot décodé, entre 0 et 2^(r+1) - 1
+     */
+    public int fastSearch(float[] soft) {
+        if (soft.length != endDim) {
+            throw new IllegalArgumentException("The word's length is false (good length = " + endDim + ")");
+        }
+        float[] fHat = new float[endDim];
+        System.arraycopy(soft, 0, fHat, 0, endDim);
+        fastWalshHadamard(fHat);
+        if (CodecMetrics.enabled()) {
+            CodecMetrics.wordsDecoded(1);
+        }
+        return bestIndex(fHat);
+    }
 
-        index = fHat[index] < 0 ? (index + endDim) % (2 * endDim) : index;
-        return bigIntToWord(new BigInteger(index.toString()));
+    /**
+     * Débruite et décode selon la recherche rapide un mot reçu sous forme de
+     * valeurs souples en virgule fixe sur 16 bits (même convention que
+     * {@link #fastSearch(float[])}). La transformée est calculée sur des int,
+     * sans débordement possible pour r <= 15 (|f^| <= 2^15 * 2^r < 2^31).
+     *
+     * @param soft les endDim valeurs souples du mot reçu
+     * @return le mot décodé, entre 0 et 2^(r+1) - 1
+     * @throws IllegalArgumentException si r > 15 ou si le mot n'a pas endDim valeurs
+     */
+    public int fastSearch(short[] soft) {
+        if (r > 15) {
+            throw new IllegalArgumentException("Fixed-point soft words need r <= 15 (use float values)");
+        }
+        if (soft.length != endDim) {
+            throw new IllegalArgumentException("The word's length is false (good length = " + endDim + ")");
+        }
+        int[] fHat = new int[endDim];
+        for (int i = 0; i < endDim; i++) {
+            fHat[i] = soft[i];
+        }
+        fastWalshHadamard(fHat);
+        if (CodecMetrics.enabled()) {
+            CodecMetrics.wordsDecoded(1);
+        }
+        return bestIndex(fHat);
+    }
+
+    /**
+     * Compte dans les métriques un mot débruité tenant dans un long : le
+     * nombre de bits corrigés, et s'il y avait égalité entre plusieurs mots du
+     * code. Une égalité n'est possible qu'à une distance d'au moins 2^r / 4,
+     * la distance minimale du code étant 2^r / 2 ; le dictionnaire n'est
+     * parcouru que dans ce cas.
+     *
+     * @param received le mot reçu
+     * @param codeword le mot du code retenu
+     */
+    private void record(long received, long codeword) {
+        int distance = Long.bitCount(received ^ codeword);
+        boolean tie = false;
+        if (4 * distance >= endDim) {
+            int closest = 0;
+            for (long candidate : codebook) {
+                if (Long.bitCount(received ^ candidate) == distance) {
+                    closest++;
+                }
+            }
+            tie = closest > 1;
+        }
+        CodecMetrics.corrected(distance, tie);
+    }
+
+    /**
+     * Compte dans les métriques un mot débruité (voir {@link #record(long, long)}).
+     * Sans dictionnaire, l'égalité se lit sur la transformée de Walsh-Hadamard,
+     * calculée si elle n'est pas fournie.
+     *
+     * @param received les bits du mot reçu
+     * @param codeword les bits du mot du code retenu
+     * @param fHat la transformée du mot reçu, ou null
+     */
+    private void record(long[] received, long[] codeword, int[] fHat) {
+        int distance = 0;
+        for (int w = 0; w < stride; w++) {
+            distance += Long.bitCount(received[w] ^ codeword[w]);
+        }
+        boolean tie = false;
+        if (4 * distance >= endDim && codebook != null) {
+            int closest = 0;
+            for (int i = 0; i < codebook.length; i += stride) {
+                int d = 0;
+                for (int w = 0; w < stride; w++) {
+                    d += Long.bitCount(received[w] ^ codebook[i + w]);
+                }
+                if (d == distance) {
+                    closest++;
+                }
+            }
+            tie = closest > 1;
+        }
+        else if (4 * distance >= endDim) {
+            if (fHat == null) {
+                fHat = new int[endDim];
+                for (int i = 0; i < endDim; i++) {
+                    fHat[i] = 1 - 2 * (int) (received[i >>> 6] >>> i & 1);
+                }
+                fastWalshHadamard(fHat);
+            }
+            int max = 0;
+            int count = 0;
+            for (int value : fHat) {
+                if (abs(value) > max) {
+                    max = abs(value);
+                    count = 1;
+                }
+                else if (abs(value) == max) {
+                    count++;
+                }
+            }
+            tie = count > 1;
+        }
+        CodecMetrics.corrected(distance, tie);
+    }
+
+    /**
+     * Vérifie un lot de mots tenant dans un long : une seule vérification
+     * pour tout le lot plutôt qu'une par mot.
+     *
+     * @param words les mots du lot
+     * @param inLength la taille du lot
+     * @param outLength la taille du tableau de sortie
+     */
+    private void checkBatch(long[] words, int inLength, int outLength) {
+        if (r > LONG_MAX_R) {
+            throw new IllegalArgumentException("The code's words don't fit in a long (r must be " + LONG_MAX_R + " or less)");
+        }
+        if (outLength < inLength) {
+            throw new IllegalArgumentException("The output array must have at least " + inLength + " elements");
+        }
+        if (words != null && endDim < Long.SIZE) {
+            long all = 0;
+            for (long word : words) {
+                all |= word;
+            }
+            if (all >>> endDim != 0) {
+                throw new IllegalArgumentException("The word's length is false (good length = " + endDim + ")");
+            }
+        }
+    }
+
+    /**
+     * Vérifie un lot de messages.
+     *
+     * @param messages les messages du lot
+     * @param outLength la taille du tableau de sortie
+     */
+    private void checkMessages(int[] messages, int outLength) {
+        checkBatch(null, messages.length, outLength);
+        int all = 0;
+        for (int message : messages) {
+            all |= message;
+        }
+        if (all >>> startDim != 0) {
+            throw new IllegalArgumentException("The messages must be between 0 and " + ((1 << startDim) - 1));
+        }
+    }
+
+    /**
+     * Encode un lot de messages, pour r <= 6.
+     *
+     * @param messages les messages, entre 0 et 2^(r+1) - 1
+     * @param encoded les mots codés, au même indice que dans messages
+     */
+    public void encodeAll(int[] messages, long[] encoded) {
+        checkMessages(messages, encoded.length);
+        for (int i = 0; i < messages.length; i++) {
+            encoded[i] = codebook[messages[i]];
+        }
+        if (CodecMetrics.enabled()) {
+            CodecMetrics.wordsEncoded(messages.length);
+        }
+    }
+
+    /**
+     * Encode un lot de messages, pour r <= 5 (les mots codés tiennent dans un int).
+     *
+     * @param messages les messages, entre 0 et 2^(r+1) - 1
+     * @param encoded les mots codés, au même indice que dans messages
+     */
+    public void encodeAll(int[] messages, int[] encoded) {
+        if (endDim > Integer.SIZE) {
+            throw new IllegalArgumentException("The code's words don't fit in an int (r must be 5 or less)");
+        }
+        checkMessages(messages, encoded.length);
+        for (int i = 0; i < messages.length; i++) {
+            encoded[i] = (int) codebook[messages[i]];
+        }
+        if (CodecMetrics.enabled()) {
+            CodecMetrics.wordsEncoded(messages.length);
+        }
+    }
+
+    /**
+     * Décode un lot de mots codés, pour r <= 6.
+     *
+     * @param words les mots codés
+     * @param decoded les mots décodés, au même indice que dans words
+     */
+    public void decodeAll(long[] words, int[] decoded) {
+        checkBatch(words, words.length, decoded.length);
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            int xR = (int) word & 1;
+            int value = xR << r;
+            for (int b = 0; b < r; b++) {
+                value |= ((int) (word >>> (1 << b)) & 1 ^ xR) << b;
+            }
+            decoded[i] = value;
+        }
+        if (CodecMetrics.enabled()) {
+            CodecMetrics.wordsDecoded(words.length);
+        }
+    }
+
+    /**
+     * Bruite un lot de mots, pour r <= 6, en tirant les nombres aléatoires
+     * dans le générateur fourni.
+     *
+     * @param words les mots
+     * @param noised les mots bruités, au même indice que dans words
+     * @param probability la probabilité de bruiter un bit
+     * @param random le générateur à utiliser
+     */
+    public void noiseAll(long[] words, long[] noised, double probability, SplittableRandom random) {
+        noiseAll(words, noised, new BinarySymmetricChannel(probability, random));
+    }
+
+    /**
+     * Bruite un lot de mots, pour r <= 6, en les transmettant l'un après
+     * l'autre sur un canal.
+     *
+     * @param words les mots
+     * @param noised les mots bruités, au même indice que dans words
+     * @param channel le canal
+     */
+    public void noiseAll(long[] words, long[] noised, BinarySymmetricChannel channel) {
+        checkBatch(words, words.length, noised.length);
+        channel.transmitAll(words, noised, endDim);
+    }
+
+    /**
+     * Débruite un lot de mots selon la recherche semi-exhaustive, pour r <= 6.
+     *
+     * @param noised les mots reçus
+     * @param denoised les mots du code les plus proches, au même indice que dans noised
+     */
+    public void semiExhaustiveSearchAll(long[] noised, long[] denoised) {
+        checkBatch(noised, noised.length, denoised.length);
+        if (CodecMetrics.enabled()) {
+            for (int i = 0; i < noised.length; i++) {
+                long codeword = nearest(noised[i]);
+                record(noised[i], codeword);
+                denoised[i] = codeword;
+            }
+            return;
+        }
+        for (int i = 0; i < noised.length; i++) {
+            denoised[i] = nearest(noised[i]);
+        }
+    }
+
+    /**
+     * Débruite et décode selon la recherche rapide un lot de mots reçus tenant
+     * dans un long (r <= 6). Table de décodage pour r <= 4, API Vector si elle
+     * est disponible (un mot par voie), recherche scalaire sinon et pour les
+     * derniers mots ; le résultat est le même que mot par mot.
+     *
+     * @param received les mots reçus, le bit i d'un long étant le bit i du mot
+     * @param decoded les mots décodés, au même indice que dans received
+     */
+    public void fastSearchAll(long[] received, int[] decoded) {
+        checkBatch(received, received.length, decoded.length);
+        int done = 0;
+        if (r <= LOOKUP_MAX_R) {
+            byte[] table = lookupTable();
+            for (; done < received.length; done++) {
+                decoded[done] = table[(int) received[done]];
+            }
+        }
+        else if (VECTOR_SEARCH != null) {
+            done = VECTOR_SEARCH.fastSearch(r, received, decoded, received.length);
+        }
+        int[] fHat = new int[endDim];
+        for (; done < received.length; done++) {
+            decoded[done] = search(received[done], fHat);
+        }
+        if (CodecMetrics.enabled()) {
+            CodecMetrics.wordsDecoded(received.length);
+            for (int i = 0; i < received.length; i++) {
+                record(received[i], codebook[decoded[i]]);
+            }
+        }
+    }
+
+    /**
+     * Débruite et décode selon la recherche rapide un lot de mots reçus sous
+     * forme de valeurs souples (voir {@link #fastSearch(float[])}), mis bout à
+     * bout : le mot i occupe les endDim valeurs à partir de i * endDim.
+     *
+     * @param soft les valeurs souples, decoded.length * endDim au moins
+     * @param decoded les mots décodés
+     */
+    public void fastSearchAll(float[] soft, int[] decoded) {
+        if (soft.length / endDim < decoded.length) {
+            throw new IllegalArgumentException("The soft values must hold at least " + decoded.length
+                    + " words of " + endDim + " values");
+        }
+        float[] fHat = new float[endDim];
+        for (int i = 0; i < decoded.length; i++) {
+            System.arraycopy(soft, i * endDim, fHat, 0, endDim);
+            fastWalshHadamard(fHat);
+            decoded[i] = bestIndex(fHat);
+        }
+        if (CodecMetrics.enabled()) {
+            CodecMetrics.wordsDecoded(decoded.length);
+        }
     }
 }
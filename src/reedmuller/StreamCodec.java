@@ -0,0 +1,256 @@
+package reedmuller;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Codage d'un flux d'octets quelconque (fichier, archive, télémétrie) avec
+ * le code de ReedMuller d'ordre r, pour r <= 6.
+ * <p>
+ * Le flux codé commence par un en-tête non codé (entiers de 32 bits, octet
+ * de poids faible en premier) : "RMST" et r. Suivent des trames, chacune
+ * formée de sa taille en octets (32 bits, découpés en messages de r+1 bits)
+ * puis des octets de la trame, découpés eux aussi en messages de r+1 bits
+ * (le dernier complété par des 0). Chaque message est remplacé par son mot
+ * codé de 2^r bits, les mots étant mis bout à bout par {@link BitWriter} : le
+ * bit j du flux est le bit j % 8 de l'octet j / 8. Une trame de taille 0
+ * termine le flux, la taille de chaque trame indique donc combien de bits du
+ * dernier message sont des données. Le décodage passe par la recherche rapide, la taille
+ * des trames est donc protégée comme les données.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+public class StreamCodec {
+    // "RMST" lu en little-endian
+    static final int MAGIC = 'R' | 'M' << 8 | 'S' << 16 | 'T' << 24;
+    // nombre maximal d'octets de données par trame
+    static final int FRAME_BYTES = 1 << 16;
+
+    private final ReedMuller rm;
+    private final int messageBits;
+    // nombre de messages pour coder la taille d'une trame
+    private final int lengthMessages;
+
+    private StreamCodec(int r) {
+        if (r < 1 || r > 6) {
+            throw new IllegalArgumentException("r must be between 1 and 6 for a stream");
+        }
+        rm = ReedMuller.of(r);
+        messageBits = rm.getStartDim();
+        lengthMessages = (Integer.SIZE + messageBits - 1) / messageBits;
+    }
+
+    /**
+     * Code un flux d'octets jusqu'à sa fin.
+     *
+     * @param in le flux à coder
+     * @param out le flux codé
+     * @param r l'ordre du code, entre 1 et 6
+     * @return le nombre d'octets lus
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     */
+    public static long encode(InputStream in, OutputStream out, int r) throws IOException {
+        return encode(Channels.newChannel(in), Channels.newChannel(out), r);
+    }
+
+    /**
+     * Code un canal d'octets jusqu'à sa fin.
+     *
+     * @param in le canal à coder
+     * @param out le canal codé
+     * @param r l'ordre du code, entre 1 et 6
+     * @return le nombre d'octets lus
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     */
+    public static long encode(ReadableByteChannel in, WritableByteChannel out, int r) throws IOException {
+        return new StreamCodec(r).encode(in, out);
+    }
+
+    /**
+     * Décode un flux codé par {@link #encode(InputStream, OutputStream, int)},
+     * en corrigeant les erreurs par la recherche rapide.
+     *
+     * @param in le flux codé
+     * @param out le flux décodé
+     * @return le nombre d'octets écrits
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     * @throws IllegalArgumentException si le flux n'est pas conforme ou est tronqué
+     */
+    public static long decode(InputStream in, OutputStream out) throws IOException, IllegalArgumentException {
+        return decode(Channels.newChannel(in), Channels.newChannel(out));
+    }
+
+    /**
+     * Décode un canal codé par {@link #encode(ReadableByteChannel, WritableByteChannel, int)},
+     * en corrigeant les erreurs par la recherche rapide.
+     *
+     * @param in le canal codé
+     * @param out le canal décodé
+     * @return le nombre d'octets écrits
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     * @throws IllegalArgumentException si le flux n'est pas conforme ou est tronqué
+     */
+    public static long decode(ReadableByteChannel in, WritableByteChannel out)
+            throws IOException, IllegalArgumentException {
+        BitReader reader = new BitReader(in);
+        if ((int) reader.getBits(Integer.SIZE) != MAGIC) {
+            throw new IllegalArgumentException("The stream is not an encoded stream");
+        }
+        return new StreamCodec((int) reader.getBits(Integer.SIZE)).decode(reader, out);
+    }
+
+    private long encode(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        ByteBuffer frame = ByteBuffer.allocateDirect(FRAME_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        BitWriter writer = new BitWriter(out);
+        writer.putBits(MAGIC & 0xFFFFFFFFL, Integer.SIZE);
+        writer.putBits(rm.getR(), Integer.SIZE);
+        int[] messages = new int[messages(FRAME_BYTES)];
+        long[] words = new long[messages.length];
+        int[] lengthBuffer = new int[lengthMessages];
+        long[] lengthWords = new long[lengthMessages];
+        long total = 0;
+        int length;
+        do {
+            frame.clear();
+            while (frame.hasRemaining() && in.read(frame) >= 0) {
+                // lecture jusqu'à remplir la trame ou atteindre la fin
+            }
+            frame.flip();
+            length = frame.remaining();
+            total += length;
+
+            split(length, lengthBuffer);
+            rm.encodeAll(lengthBuffer, lengthWords);
+            writer.putWords(lengthWords, lengthMessages, rm.getEndDim());
+            if (length == FRAME_BYTES) {
+                split(frame, messages);
+                rm.encodeAll(messages, words);
+                writer.putWords(words, messages.length, rm.getEndDim());
+            }
+            else if (length > 0) {
+                // dernière trame, incomplète
+                int[] last = new int[messages(length)];
+                split(frame, last);
+                rm.encodeAll(last, words);
+                writer.putWords(words, last.length, rm.getEndDim());
+            }
+        } while (length > 0);
+        writer.finish();
+        return total;
+    }
+
+    private long decode(BitReader reader, WritableByteChannel out) throws IOException {
+        ByteBuffer frame = ByteBuffer.allocateDirect(FRAME_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long[] words = new long[messages(FRAME_BYTES)];
+        int[] messages = new int[words.length];
+        long[] lengthWords = new long[lengthMessages];
+        int[] lengthBuffer = new int[lengthMessages];
+        long total = 0;
+        while (true) {
+            reader.getWords(lengthWords, lengthMessages, rm.getEndDim());
+            rm.fastSearchAll(lengthWords, lengthBuffer);
+            long length = join(lengthBuffer);
+            if (length == 0) {
+                return total;
+            }
+            if (length > FRAME_BYTES) {
+                throw new IllegalArgumentException("The frame length " + length + " is corrupted");
+            }
+            int count = messages((int) length);
+            long[] received = count == words.length ? words : new long[count];
+            reader.getWords(received, count, rm.getEndDim());
+            rm.fastSearchAll(received, messages);
+            frame.clear().limit((int) length);
+            join(messages, count, frame);
+            frame.flip();
+            while (frame.hasRemaining()) {
+                out.write(frame);
+            }
+            total += length;
+        }
+    }
+
+    /**
+     * Retourne le nombre de messages de r+1 bits pour bytes octets.
+     */
+    private int messages(int bytes) {
+        return (int) (((long) bytes * Byte.SIZE + messageBits - 1) / messageBits);
+    }
+
+    /**
+     * Découpe une valeur de 32 bits en messages de r+1 bits, poids faible en premier.
+     */
+    private void split(int value, int[] messages) {
+        int mask = (1 << messageBits) - 1;
+        for (int i = 0; i < messages.length; i++) {
+            long shift = (long) i * messageBits;
+            messages[i] = shift < Integer.SIZE ? value >>> shift & mask : 0;
+        }
+    }
+
+    /**
+     * Recompose une valeur de 32 bits à partir de ses messages.
+     */
+    private long join(int[] messages) {
+        long value = 0;
+        for (int i = 0; i < messages.length; i++) {
+            value |= (long) messages[i] << (i * messageBits);
+        }
+        return value & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Découpe les octets restants de frame en messages de r+1 bits, le
+     * dernier complété par des 0.
+     */
+    private void split(ByteBuffer frame, int[] messages) {
+        int mask = (1 << messageBits) - 1;
+        long acc = 0;
+        int accBits = 0;
+        for (int i = 0; i < messages.length; i++) {
+            if (accBits < messageBits) {
+                if (frame.remaining() >= Integer.BYTES) {
+                    acc |= (frame.getInt() & 0xFFFFFFFFL) << accBits;
+                    accBits += Integer.SIZE;
+                }
+                else {
+                    while (frame.hasRemaining()) {
+                        acc |= (frame.get() & 0xFFL) << accBits;
+                        accBits += Byte.SIZE;
+                    }
+                    accBits = Math.max(accBits, messageBits);
+                }
+            }
+            messages[i] = (int) acc & mask;
+            acc >>>= messageBits;
+            accBits -= messageBits;
+        }
+    }
+
+    /**
+     * Recompose les octets à partir des count premiers messages, jusqu'à
+     * remplir frame (les bits de complément sont ignorés).
+     */
+    private void join(int[] messages, int count, ByteBuffer frame) {
+        long acc = 0;
+        int accBits = 0;
+        for (int i = 0; i < count; i++) {
+            acc |= (long) messages[i] << accBits;
+            accBits += messageBits;
+            if (accBits >= Integer.SIZE && frame.remaining() >= Integer.BYTES) {
+                frame.putInt((int) acc);
+                acc >>>= Integer.SIZE;
+                accBits -= Integer.SIZE;
+            }
+        }
+        while (frame.hasRemaining()) {
+            frame.put((byte) acc);
+            acc >>>= Byte.SIZE;
+        }
+    }
+}
@@ -7,20 +7,30 @@ import static reedmuller.Bit.*;
 
 /**
  * Classe représentant un mot composé de bits.
+ * Les bits sont stockés par paquets de 64 dans des long (le bit d'indice i
+ * est le bit i % 64 du long i / 64), les opérations se font sur place.
  *
  * @author Raed Abdennadher
  * @author Steven Liatti
  */
 public class Word {
-    private Bit[] value;
+    private static final int LOG_BITS = 6;
+    private static final int BITS = 1 << LOG_BITS;
+
+    private final long[] value;
+    private final int size;
 
     /**
-     * Construit un mot vide de longeur size.
+     * Construit un mot de longeur size, tous ses bits à 0.
      *
      * @param size la taille du mot
      */
     public Word(int size) {
-        value = new Bit[size];
+        if (size < 0) {
+            throw new IllegalArgumentException("size must be 0 or greater");
+        }
+        this.size = size;
+        value = new long[longsFor(size)];
     }
 
     /**
@@ -29,10 +39,8 @@ public class Word {
      * @param other un autre mot
      */
     public Word(Word other) {
-        value = new Bit[other.size()];
-        for (int i = 0; i < other.size(); i++) {
-            value[i] = new Bit(other.value[i]);
-        }
+        size = other.size;
+        value = other.value.clone();
     }
 
     /**
@@ -41,10 +49,71 @@ public class Word {
      * @param bitArray un tableau de bits
      */
     public Word(Bit[] bitArray) {
-        value = new Bit[bitArray.length];
+        this(bitArray.length);
         for (int i = 0; i < bitArray.length; i++) {
-            value[i] = new Bit(bitArray[i]);
+            set(i, bitArray[i].v());
+        }
+    }
+
+    /**
+     * Construit un mot de taille size à partir de ses bits déjà empaquetés.
+     * Le tableau n'est pas copié.
+     *
+     * @param value les bits empaquetés
+     * @param size la taille du mot
+     */
+    Word(long[] value, int size) {
+        if (value.length != longsFor(size)) {
+            throw new IllegalArgumentException("The array's length must be " + longsFor(size));
         }
+        this.size = size;
+        this.value = value;
+    }
+
+    /**
+     * Retourne le nombre de long nécessaires pour stocker size bits.
+     *
+     * @param size le nombre de bits
+     * @return le nombre de long
+     */
+    static int longsFor(int size) {
+        return (size + BITS - 1) >>> LOG_BITS;
+    }
+
+    /**
+     * Retourne les bits empaquetés du mot (sans copie).
+     *
+     * @return les bits empaquetés
+     */
+    long[] words() {
+        return value;
+    }
+
+    /**
+     * Construit un mot de taille size à partir de bits empaquetés (le bit i
+     * du mot est le bit i % 64 de src[offset + i / 64]). Les bits sont copiés.
+     *
+     * @param src le tableau source
+     * @param offset l'indice du premier long dans src
+     * @param size la taille du mot
+     * @return un nouveau mot
+     */
+    public static Word fromLongs(long[] src, int offset, int size) {
+        Word word = new Word(size);
+        System.arraycopy(src, offset, word.value, 0, word.value.length);
+        word.clearTail();
+        return word;
+    }
+
+    /**
+     * Copie les bits empaquetés du mot dans un tableau, à partir de l'indice
+     * offset (même disposition que {@link #fromLongs(long[], int, int)}).
+     *
+     * @param dst le tableau destination
+     * @param offset l'indice du premier long dans dst
+     */
+    public void toLongs(long[] dst, int offset) {
+        System.arraycopy(value, 0, dst, offset, value.length);
     }
 
     /**
@@ -53,7 +122,51 @@ public class Word {
      * @return la taille du mot
      */
     public int size() {
-        return value.length;
+        return size;
+    }
+
+    private void checkIndex(int i) {
+        if (i >= size || i < 0) {
+            throw new IllegalArgumentException("Index must be less or equal to " + (size - 1));
+        }
+    }
+
+    /**
+     * Retourne la valeur (0 ou 1) du bit à l'indice i.
+     *
+     * @param i l'indice
+     * @return le bit à l'indice donné sous forme de int
+     */
+    public int get(int i) {
+        checkIndex(i);
+        return (int) (value[i >>> LOG_BITS] >>> i) & 1;
+    }
+
+    /**
+     * Modifie le bit à l'indice i par la valeur donnée (0 ou 1).
+     *
+     * @param i l'indice
+     * @param bit la nouvelle valeur du bit
+     */
+    public void set(int i, int bit) {
+        checkIndex(i);
+        long mask = 1L << i;
+        if ((bit & 1) == 0) {
+            value[i >>> LOG_BITS] &= ~mask;
+        }
+        else {
+            value[i >>> LOG_BITS] |= mask;
+        }
+    }
+
+    /**
+     * Inverse le bit à l'indice i.
+     *
+     * @param i l'indice
+     */
+    public void flip(int i) {
+        checkIndex(i);
+        value[i >>> LOG_BITS] ^= 1L << i;
     }
 
     /**
@@ -63,10 +176,7 @@ public class Word {
      * @return le bit à l'indice donné
      */
     public Bit at(int i) {
-        if (i >= this.size() && i < 0) {
-            throw new IllegalArgumentException("Index must be less or equal to " + (this.size() - 1));
-        }
-        return value[i];
+        return get(i) == 0 ? ZERO : ONE;
     }
 
     /**
@@ -76,10 +186,92 @@ public class Word {
      * @param bit le nouveau bit
      */
     public void at(int i, Bit bit) {
-        if (i >= this.size() && i < 0) {
-            throw new IllegalArgumentException("Index must be less or equal to " + (this.size() - 1));
+        set(i, bit.v());
+    }
+
+    private void checkSize(Word other) {
+        if (size != other.size) {
+            throw new IllegalArgumentException("The length's words must be the same");
+        }
+    }
+
+    /**
+     * Ou exclusif bit à bit avec un autre mot, sur place.
+     *
+     * @param other un autre mot de même taille
+     * @return le mot courant
+     */
+    public Word xor(Word other) {
+        checkSize(other);
+        for (int i = 0; i < value.length; i++) {
+            value[i] ^= other.value[i];
+        }
+        return this;
+    }
+
+    /**
+     * Et bit à bit avec un autre mot, sur place.
+     *
+     * @param other un autre mot de même taille
+     * @return le mot courant
+     */
+    public Word and(Word other) {
+        checkSize(other);
+        for (int i = 0; i < value.length; i++) {
+            value[i] &= other.value[i];
+        }
+        return this;
+    }
+
+    /**
+     * Retourne le nombre de bits à 1 du mot.
+     *
+     * @return le poids du mot
+     */
+    public int popCount() {
+        int count = 0;
+        for (long l : value) {
+            count += Long.bitCount(l);
+        }
+        return count;
+    }
+
+    /**
+     * Calcule la distance de Hamming entre deux mots, sans créer de mot intermédiaire.
+     *
+     * @param one le 1er mot
+     * @param two le 2ème mot
+     * @return le nombre de bits différents
+     */
+    public static int distance(Word one, Word two) {
+        one.checkSize(two);
+        int count = 0;
+        for (int i = 0; i < one.value.length; i++) {
+            count += Long.bitCount(one.value[i] ^ two.value[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Copie les bits d'un autre mot de même taille dans le mot courant.
+     *
+     * @param other un autre mot
+     * @return le mot courant
+     */
+    public Word copyFrom(Word other) {
+        checkSize(other);
+        System.arraycopy(other.value, 0, value, 0, value.length);
+        return this;
+    }
+
+    /**
+     * Met à 0 les bits au-delà de la taille du mot dans le dernier long.
+     */
+    private void clearTail() {
+        int rest = size & (BITS - 1);
+        if (rest != 0) {
+            value[value.length - 1] &= (1L << rest) - 1;
         }
-        value[i] = new Bit(bit);
     }
 
     /**
@@ -88,18 +280,13 @@ public class Word {
      * @return le mot courant + 1
      */
     public Word plusOne() {
-        Word newWord = new Word(this);;
-        newWord.value[0] = add(value[0], ONE);
-        if (newWord.value[0].equals(ONE)) {
-            return newWord;
-        }
-        else {
-            int i = 1;
-            do {
-                newWord.value[i] = add(newWord.value[i], ONE);
-                i++;
-            } while (newWord.value[i - 1].equals(ZERO) && i < size());
+        Word newWord = new Word(this);
+        for (int i = 0; i < value.length; i++) {
+            if (++newWord.value[i] != 0) {
+                break;
+            }
         }
+        newWord.clearTail();
         return newWord;
     }
 
@@ -109,10 +296,11 @@ public class Word {
      * @return l'inverse bit à bit
      */
     public Word not() {
-        Word newWord = new Word(size());
-        for (int i = 0; i < size(); i++) {
-            newWord.value[i] = value[i].not();
+        Word newWord = new Word(size);
+        for (int i = 0; i < value.length; i++) {
+            newWord.value[i] = ~value[i];
         }
+        newWord.clearTail();
         return newWord;
     }
 
@@ -123,7 +311,12 @@ public class Word {
 
         Word word = (Word) o;
 
-        return Arrays.equals(value, word.value);
+        return size == word.size && Arrays.equals(value, word.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * size + Arrays.hashCode(value);
     }
 
 	/**
@@ -134,11 +327,11 @@ public class Word {
 	 * @return le mot sous forme de String
 	 */
     public String reverse() {
-        String str = "";
-        for (int i = size() - 1; i >= 0; i--) {
-            str += value[i] + "";
+        char[] str = new char[size];
+        for (int i = 0; i < size; i++) {
+            str[size - i - 1] = (char) ('0' + get(i));
         }
-        return str;
+        return new String(str);
     }
 
 	/**
@@ -148,11 +341,11 @@ public class Word {
 	 */
 	@Override
     public String toString() {
-	    String str = "";
-	    for (int i = 0; i < size(); i++) {
-		    str += value[i] + "";
+	    char[] str = new char[size];
+	    for (int i = 0; i < size; i++) {
+		    str[i] = (char) ('0' + get(i));
 	    }
-	    return str;
+	    return new String(str);
     }
 
     /**
@@ -164,8 +357,9 @@ public class Word {
      */
     public static Word allWordAt(Bit bit, int size) {
         Word word = new Word(size);
-        for (int i = 0; i < size; i++) {
-            word.value[i] = new Bit(bit);
+        if (bit.v() == 1) {
+            Arrays.fill(word.value, -1L);
+            word.clearTail();
         }
         return word;
     }
@@ -188,82 +382,110 @@ public class Word {
     }
 
     /**
-     * Calcule le complément à deux d'un @{@link BigInteger}.
+     * Convertit un long en mot de taille size (au plus 64). Une valeur négative
+     * est prise en complément à deux sur size bits.
      *
-     * @param n un BigInteger
-     * @return le complément à deux
+     * @param n la valeur, entre -2^(size-1) et 2^size - 1
+     * @param size la taille du mot
+     * @return un nouveau mot
      */
-    private static BigInteger twoComplement(BigInteger n){
-        BigInteger tempBg = new BigInteger(n.abs().toString());
-        Word tempWord = bigIntToWord(tempBg);
-        tempWord = tempWord.not();
-        tempWord = tempWord.plusOne();
-        return wordToBigInt(tempWord);
+    public static Word fromLong(long n, int size) {
+        if (size < 0 || size > BITS) {
+            throw new IllegalArgumentException("size must be between 0 and " + BITS);
+        }
+        if (size < BITS && n >>> size != 0 && (size == 0 || n >> (size - 1) != -1L)) {
+            throw new IllegalArgumentException("The value " + n + " doesn't fit in " + size + " bits");
+        }
+        Word word = new Word(size);
+        if (size > 0) {
+            word.value[0] = n;
+            word.clearTail();
+        }
+        return word;
     }
 
     /**
-     * Convertit un BigInteger en mot.
+     * Retourne la valeur (non signée) d'un mot d'au plus 64 bits.
      *
-     * @param n un BigInteger
-     * @return un nouveau mot
+     * @return la valeur, le bit i du long étant le bit i du mot
      */
-    public static Word bigIntToWord(BigInteger n) {
-        String reverse;
-        if (n.signum() < 0) {
-            reverse = twoComplement(n).toString(2);
-        }
-        else {
-            reverse = n.toString(2);
-        }
-        Bit word[] = new Bit[reverse.length()];
-        for (int i = 0; i < reverse.length(); i++) {
-            word[i] = new Bit(reverse.charAt(reverse.length() - i - 1));
+    public long toLong() {
+        if (size > BITS) {
+            throw new IllegalArgumentException("The word doesn't fit in a long (" + size + " bits)");
         }
-        return new Word(word);
+        return size == 0 ? 0 : value[0];
     }
 
     /**
-     * Convertit un mot d'une certaine taille vers une taille plus grande.
+     * Retourne une copie des bits empaquetés du mot (voir {@link #fromLongs(long[], int, int)}).
      *
-     * @param origin le mot d'origine
-     * @param size la taille souhaitée
-     * @return le nouveau mot à la bonne taille
+     * @return un nouveau tableau de longsFor(size) long
      */
-    private static Word wordAtSize(Word origin, int size) {
-        if (size < origin.size() || size == 0) {
-            throw new IllegalArgumentException("size must be greater or equal to origin size");
-        }
-        if (size == origin.size()) {
-            return origin;
-        }
-        Word word = new Word(size);
-        for (int i = 0; i < origin.size(); i++) {
-            word.at(i, origin.at(i));
-        }
-        for (int i = origin.size(); i < size; i++) {
-            word.at(i, new Bit(0));
-        }
-        return word;
+    public long[] toLongs() {
+        return value.clone();
     }
 
     /**
-     * Convertit un BigInteger en mot à la taille donnée.
+     * Convertit un BigInteger en mot, de la taille minimale : celle de sa
+     * représentation binaire s'il est positif (1 bit pour 0), celle de son
+     * complément à deux, bit de signe compris, s'il est négatif.
      *
      * @param n un BigInteger
+     * @return un nouveau mot
+     */
+    public static Word bigIntToWord(BigInteger n) {
+        return bigIntToWord(n, n.signum() < 0 ? n.bitLength() + 1 : Math.max(1, n.bitLength()));
+    }
+
+    /**
+     * Convertit un BigInteger en mot à la taille donnée. Une valeur négative
+     * est prise en complément à deux sur size bits. Seules les valeurs qui ne
+     * tiennent pas dans un long passent par les opérations de BigInteger.
+     *
+     * @param n un BigInteger, entre -2^(size-1) et 2^size - 1
      * @param size la taille donnée
      * @return un nouveau mot
      */
     public static Word bigIntToWord(BigInteger n, int size) {
-        return wordAtSize(bigIntToWord(n), size);
+        if (size <= 0 || n.bitLength() > (n.signum() < 0 ? size - 1 : size)) {
+            throw new IllegalArgumentException("The value " + n + " doesn't fit in " + size + " bits");
+        }
+        Word word = new Word(size);
+        if (n.bitLength() < BITS) {
+            long small = n.longValue();
+            word.value[0] = small;
+            if (small < 0) {
+                Arrays.fill(word.value, 1, word.value.length, -1L);
+            }
+        }
+        else {
+            // shiftRight est arithmétique : les long de poids fort d'un négatif valent -1
+            for (int w = 0; w < word.value.length; w++) {
+                word.value[w] = n.shiftRight(w * BITS).longValue();
+            }
+        }
+        word.clearTail();
+        return word;
     }
 
     /**
-     * Convertit un mot en BigInteger.
+     * Convertit un mot en BigInteger (non signé).
      *
      * @param word le mot à convertir
      * @return un BigInteger
      */
     public static BigInteger wordToBigInt(Word word) {
-        return new BigInteger(word.reverse(), 2);
+        if (word.size < BITS) {
+            return BigInteger.valueOf(word.toLong());
+        }
+        // octets de poids fort en premier
+        byte[] magnitude = new byte[word.value.length * Long.BYTES];
+        for (int w = 0; w < word.value.length; w++) {
+            long bits = word.value[word.value.length - 1 - w];
+            for (int b = 0; b < Long.BYTES; b++) {
+                magnitude[w * Long.BYTES + b] = (byte) (bits >>> (Long.SIZE - Byte.SIZE * (b + 1)));
+            }
+        }
+        return new BigInteger(1, magnitude);
     }
 }
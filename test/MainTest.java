@@ -0,0 +1,131 @@
+import images.PGM;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du mode non interactif : enchaînement des opérations données par
+ * --ops et rejet des arguments mal formés.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class MainTest {
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 23;
+    private static final int GREY_LEVEL = 255;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void operationsAreChainedInOrder() throws IOException {
+        String input = randomImage("input.pgm");
+        String clear = PGM.read(input).toString();
+        String[][] variants = {{}, {"--fused"}, {"--rows", "5"}, {"--binary"}};
+        for (String[] variant : variants) {
+            String output = dir.resolve("output-" + String.join("", variant) + ".pgm").toString();
+            run(variant, "--r", "7", "--ops", "encode, noise:0:1,denoise-decode", "--in", input, "--out", output);
+            assertEquals(clear, PGM.read(output).toString(), String.join(" ", variant));
+        }
+        // passage par le format compact, une opération par appel
+        String packed = dir.resolve("encoded.rmpk").toString();
+        String decoded = dir.resolve("decoded.pgm").toString();
+        run(new String[0], "--ops", "encode", "--in", input, "--out", packed);
+        assertEquals(PGM.read(input).encode().toString(), PGM.readPacked(packed).toString());
+        run(new String[0], "--ops", "noise:0.01:42,denoise,decode", "--in", packed, "--out", decoded);
+        assertEquals(clear, PGM.read(decoded).toString());
+    }
+
+    @Test
+    void malformedOperationsAreRejected() throws IOException {
+        String input = randomImage("input.pgm");
+        String output = dir.resolve("output.pgm").toString();
+        String[] badOps = {"encrypt", "noise", "noise:", "noise:1.5", "noise:-0.1", "noise:NaN", "noise:x",
+                "noise:0.1:seed", "noise:0.1:", "noise:0.1:1:2", "encode,,decode", "encode:1x"};
+        for (String ops : badOps) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> Main.pipeline(new String[]{"--ops", ops, "--in", input, "--out", output}), ops);
+        }
+        assertTrue(Files.notExists(dir.resolve("output.pgm")));
+    }
+
+    @Test
+    void malformedOptionsAreRejected() throws IOException {
+        String input = randomImage("input.pgm");
+        String output = dir.resolve("output.pgm").toString();
+        String[][] badArgs = {
+                {"--ops", "encode", "--in", input},
+                {"--ops", "encode", "--out", output},
+                {"--ops", "encode", "--in", input, "--out"},
+                {"--ops", "encode", "--in", input, "--out", output, "--colour", "red"},
+                {"--ops", "encode", "--in", input, "--out", output, "--rows", "0"},
+                {"--ops", "encode", "--in", input, "--out", output, "--rows", "many"},
+                {"--ops", "encode", "--in", input, "--out", output, "--r", "seven"},
+                // le niveau de gris 255 donne r = 7
+                {"--ops", "encode", "--in", input, "--out", output, "--r", "5"},
+                {"--ops", "encode", "--in", input, "--out", output, "--r", "5", "--rows", "4"},
+                {"--ops", "encode", "--in", input, "--out", dir.resolve("x.rmpk").toString(), "--rows", "4"},
+        };
+        for (String[] args : badArgs) {
+            assertThrows(IllegalArgumentException.class, () -> Main.pipeline(args), String.join(" ", args));
+        }
+    }
+
+    @Test
+    void errorsExitWithStatusTwo() throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), "Main",
+                "--ops", "encrypt", "--in", "x.pgm", "--out", "y.pgm")
+                .redirectErrorStream(true)
+                .start();
+        String message = readAll(process.getInputStream());
+        assertTrue(process.waitFor(60, TimeUnit.SECONDS), "Main didn't finish");
+        assertEquals(2, process.exitValue(), message);
+        assertTrue(message.contains("Unknown operation: encrypt"), message);
+        assertTrue(message.contains("Usage: --ops"), message);
+    }
+
+    private static void run(String[] options, String... args) throws IOException {
+        String[] all = new String[options.length + args.length];
+        System.arraycopy(options, 0, all, 0, options.length);
+        System.arraycopy(args, 0, all, options.length, args.length);
+        Main.pipeline(all);
+    }
+
+    /**
+     * Écrit une image aléatoire au format texte et retourne son nom.
+     */
+    private String randomImage(String name) throws IOException {
+        SplittableRandom random = new SplittableRandom(1);
+        StringBuilder sb = new StringBuilder("P2\n" + WIDTH + " " + HEIGHT + "\n" + GREY_LEVEL + "\n");
+        for (int i = 0; i < WIDTH * HEIGHT; i++) {
+            sb.append(random.nextInt(GREY_LEVEL + 1)).append(i % WIDTH == WIDTH - 1 ? '\n' : ' ');
+        }
+        Path path = dir.resolve(name);
+        Files.write(path, sb.toString().getBytes(StandardCharsets.US_ASCII));
+        return path.toString();
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for (int n; (n = in.read(buffer)) > 0; ) {
+            out.write(buffer, 0, n);
+        }
+        return out.toString("UTF-8");
+    }
+}
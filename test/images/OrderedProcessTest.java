@@ -0,0 +1,81 @@
+package images;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Vérifie que les erreurs du lecteur et des threads de calcul arrivent à
+ * l'écrivain au lieu de le bloquer.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class OrderedProcessTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readerErrorReachesTheWriter() throws IOException {
+        String input = input();
+        OutOfMemoryError error = new OutOfMemoryError("test");
+        try (PGMReader reader = new FailingReader(input, error);
+             PGMWriter writer = new PGMWriter(dir.resolve("out.pgm").toString(), 8, 8, 255)) {
+            OutOfMemoryError thrown = assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+                    assertThrows(OutOfMemoryError.class,
+                            () -> OrderedProcess.run(reader, writer, 2, block -> block, 2)));
+            assertSame(error, thrown);
+        } catch (IOException e) {
+            // l'écrivain incomplet refuse de se fermer
+        }
+    }
+
+    @Test
+    void workerErrorReachesTheWriter() throws IOException {
+        String input = input();
+        try (PGMReader reader = new PGMReader(input);
+             PGMWriter writer = new PGMWriter(dir.resolve("out.pgm").toString(), 8, 8, 255)) {
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+                    assertThrows(StackOverflowError.class, () -> OrderedProcess.run(reader, writer, 2, block -> {
+                        throw new StackOverflowError();
+                    }, 2)));
+        } catch (IOException e) {
+            // l'écrivain incomplet refuse de se fermer
+        }
+    }
+
+    private String input() throws IOException {
+        String input = dir.resolve("in.pgm").toString();
+        PGM.write(PipelineTest.randomImage(8, 8, 255, 1), input);
+        return input;
+    }
+
+    /**
+     * Lecteur dont la deuxième lecture échoue.
+     */
+    private static final class FailingReader extends PGMReader {
+        private final Error error;
+        private int reads;
+
+        FailingReader(String filename, Error error) throws IOException {
+            super(filename);
+            this.error = error;
+        }
+
+        @Override
+        public PGM readRows(int rows) throws IOException {
+            if (++reads == 2) {
+                throw error;
+            }
+            return super.readRows(rows);
+        }
+    }
+}
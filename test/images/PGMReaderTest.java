@@ -0,0 +1,91 @@
+package images;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests de lecture des images PGM par blocs de lignes.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class PGMReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sixteenBitSamplesAreStoredCompactly() throws IOException {
+        // r = 15 : des mots du code de 32768 bits, mais des pixels de 16 bits
+        int width = 512;
+        int height = 512;
+        ByteBuffer pixels = ByteBuffer.allocate(2 * width * height);
+        for (int i = 0; i < width * height; i++) {
+            pixels.putShort((short) (i * 7));
+        }
+        Path file = dir.resolve("deep.pgm");
+        Files.write(file, concat(("P5\n" + width + " " + height + "\n65535\n").getBytes("US-ASCII"),
+                pixels.array()));
+        try (PGMReader reader = new PGMReader(file.toString())) {
+            PGM image = reader.readRows(height);
+            assertEquals(15, image.getOrder());
+            assertEquals(16, image.getPixels().bits());
+            assertEquals(7 * 1000 & 0xFFFF, image.getPixels().get(1000));
+        }
+    }
+
+    @Test
+    void binarySamplesAboveTheGreyLevelAreRejected() throws IOException {
+        Path file = dir.resolve("over.pgm");
+        Files.write(file, concat("P5 2 1 100\n".getBytes("US-ASCII"), new byte[]{50, (byte) 200}));
+        try (PGMReader reader = new PGMReader(file.toString())) {
+            assertThrows(IllegalArgumentException.class, () -> reader.readRows(1));
+        }
+    }
+
+    @Test
+    void commentsAreSkipped() throws IOException {
+        // commentaires entre chaque champ de l'en-tête, et entre les pixels en texte
+        Path text = dir.resolve("comments.pgm");
+        Files.write(text, ("P2 # format\n# ligne entière\n3# largeur\n2\n#\n15 # niveau\n"
+                + "1 2 # fin de ligne\n3\n# entre deux lignes\n4 5 15\n").getBytes("US-ASCII"));
+        try (PGMReader reader = new PGMReader(text.toString())) {
+            assertEquals(3, reader.getWidth());
+            assertEquals(2, reader.getHeight());
+            assertEquals(15, reader.getGreyLevel());
+            assertEquals(image(3, 2, 15, 1, 2, 3, 4, 5, 15).toString(), reader.readRows(2).toString());
+        }
+        // en binaire, les commentaires s'arrêtent au niveau de gris : '#' qui suit est une donnée
+        Path binary = dir.resolve("comments-binary.pgm");
+        Files.write(binary, concat("P5\n# un commentaire\n2 1 # taille\n255\n".getBytes("US-ASCII"),
+                new byte[]{'#', 10}));
+        try (PGMReader reader = new PGMReader(binary.toString())) {
+            assertEquals(image(2, 1, 255, '#', 10).toString(), reader.readRows(1).toString());
+        }
+    }
+
+    private static PGM image(int width, int height, int greyLevel, int... values) {
+        List<String> list = new ArrayList<>();
+        for (int value : values) {
+            list.add(Integer.toString(value));
+        }
+        return new PGM(width, height, greyLevel, list);
+    }
+
+    static byte[] concat(byte[] header, byte[] data) {
+        byte[] all = new byte[header.length + data.length];
+        System.arraycopy(header, 0, all, 0, header.length);
+        System.arraycopy(data, 0, all, header.length, data.length);
+        return all;
+    }
+}
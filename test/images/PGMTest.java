@@ -0,0 +1,51 @@
+package images;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests du choix du nombre de threads des opérations sur les images.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class PGMTest {
+
+    @Test
+    void onePoolPerParallelism() {
+        PGM.setParallelism(3);
+        ForkJoinPool three = PGM.getPool();
+        assertEquals(3, three.getParallelism());
+        PGM.setParallelism(5);
+        ForkJoinPool five = PGM.getPool();
+        assertEquals(5, five.getParallelism());
+        assertNotSame(three, five);
+        // les allers-retours réutilisent les mêmes pools, qui restent utilisables
+        for (int i = 0; i < 100; i++) {
+            PGM.setParallelism(3);
+            assertSame(three, PGM.getPool());
+            PGM.setParallelism(5);
+            assertSame(five, PGM.getPool());
+        }
+        assertFalse(three.isShutdown());
+        assertFalse(five.isShutdown());
+        assertThrows(IllegalArgumentException.class, () -> PGM.setParallelism(0));
+        assertSame(five, PGM.getPool());
+    }
+
+    @Test
+    void resultDoesNotDependOnParallelism() {
+        PGM image = PipelineTest.randomImage(64, 48, 255, 1);
+        PGM.setParallelism(1);
+        String sequential = image.encode().noise(0.05, 2).denoiseAndDecode().toString();
+        PGM.setParallelism(4);
+        assertEquals(sequential, image.encode().noise(0.05, 2).denoiseAndDecode().toString());
+    }
+}
@@ -0,0 +1,96 @@
+package images;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests d'aller-retour de l'écriture et de la lecture des images PGM, aux
+ * formats texte (P2) et binaire (P5).
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class PGMWriterTest {
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 23;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void textRoundTrip() throws IOException {
+        // r = 1, 4, 7 et 9 : des mots du code de 2, 16, 128 et 512 bits
+        for (int greyLevel : new int[]{3, 31, 255, 1023}) {
+            PGM image = PipelineTest.randomImage(WIDTH, HEIGHT, greyLevel, greyLevel);
+            String file = dir.resolve("clear-" + greyLevel + ".pgm").toString();
+            PGM.write(image, file);
+            assertEquals(image.toString(), PGM.read(file).toString(), "grey level " + greyLevel);
+            // une image encodée ne tient qu'au format texte
+            PGM encoded = image.encode();
+            String encodedFile = dir.resolve("encoded-" + greyLevel + ".pgm").toString();
+            PGM.write(encoded, encodedFile);
+            assertEquals(encoded.toString(), PGM.read(encodedFile).toString(), "grey level " + greyLevel);
+            assertEquals(image.toString(), PGM.read(encodedFile).decode().toString(), "grey level " + greyLevel);
+        }
+    }
+
+    @Test
+    void binaryRoundTrip() throws IOException {
+        // un octet par pixel jusqu'à 255, deux au-delà
+        for (int greyLevel : new int[]{3, 255, 1023, 65535}) {
+            PGM image = PipelineTest.randomImage(WIDTH, HEIGHT, greyLevel, greyLevel);
+            Path path = dir.resolve("binary-" + greyLevel + ".pgm");
+            String file = path.toString();
+            PGM.write(image, file, true);
+            int bytes = greyLevel < 0x100 ? 1 : 2;
+            String header = "P5\n# Generated with Java master race\n" + WIDTH + " " + HEIGHT + "\n" + greyLevel + "\n";
+            assertEquals(header.length() + (long) bytes * WIDTH * HEIGHT, Files.size(path), "grey level " + greyLevel);
+            try (PGMReader reader = new PGMReader(file)) {
+                assertTrue(reader.isBinary());
+                assertEquals(image.toString(), reader.readRows(HEIGHT).toString(), "grey level " + greyLevel);
+            }
+        }
+        PGM encoded = PipelineTest.randomImage(WIDTH, HEIGHT, 255, 1).encode();
+        String file = dir.resolve("encoded.pgm").toString();
+        assertThrows(IllegalArgumentException.class, () -> PGM.write(encoded, file, true));
+    }
+
+    @Test
+    void blocksAreWrittenInOrder() throws IOException {
+        for (boolean binary : new boolean[]{false, true}) {
+            PGM image = PipelineTest.randomImage(WIDTH, HEIGHT, 255, 2);
+            String input = dir.resolve("input.pgm").toString();
+            String output = dir.resolve("blocks-" + binary + ".pgm").toString();
+            PGM.write(image, input);
+            try (PGMReader reader = new PGMReader(input);
+                 PGMWriter writer = new PGMWriter(output, WIDTH, HEIGHT, 255, binary)) {
+                while (reader.hasMoreRows()) {
+                    writer.write(reader.readRows(5));
+                }
+            }
+            assertEquals(image.toString(), PGM.read(output).toString(), binary ? "P5" : "P2");
+        }
+    }
+
+    @Test
+    void mismatchedOrMissingRowsAreRejected() throws IOException {
+        String file = dir.resolve("short.pgm").toString();
+        PGMWriter writer = new PGMWriter(file, WIDTH, HEIGHT, 255);
+        assertThrows(IllegalArgumentException.class,
+                () -> writer.write(PipelineTest.randomImage(WIDTH + 1, 1, 255, 3)));
+        assertThrows(IllegalArgumentException.class,
+                () -> writer.write(PipelineTest.randomImage(WIDTH, HEIGHT + 1, 255, 3)));
+        writer.write(PipelineTest.randomImage(WIDTH, 1, 255, 3));
+        assertThrows(IOException.class, writer::close);
+        assertThrows(IllegalArgumentException.class,
+                () -> new PGMWriter(dir.resolve("deep.pgm").toString(), WIDTH, HEIGHT, 0x10000, true));
+    }
+}
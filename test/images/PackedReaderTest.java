@@ -0,0 +1,117 @@
+package images;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests d'aller-retour de l'écriture et de la lecture séquentielle du format
+ * compact, en entier et par blocs de lignes.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class PackedReaderTest {
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 23;
+    // r = 1, 2, 4, 6, 7 et 9 : mots de 2, 4, 16, 64, 128 et 512 bits
+    private static final int[] GREY_LEVELS = {3, 7, 31, 127, 255, 1023};
+    // en-tête : "RMPK", largeur, hauteur, niveau de gris, r
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writeThenReadGivesTheImage() throws IOException {
+        for (int greyLevel : GREY_LEVELS) {
+            PGM encoded = PipelineTest.randomImage(WIDTH, HEIGHT, greyLevel, greyLevel).encode();
+            Path path = dir.resolve("image-" + greyLevel + ".rmpk");
+            PGM.writePacked(encoded, path.toString());
+            long bits = (long) WIDTH * HEIGHT * encoded.getCode().getEndDim();
+            assertEquals(HEADER_BYTES + (bits + 7) / 8, Files.size(path), "grey level " + greyLevel);
+            assertEquals(encoded.toString(), PGM.readPacked(path.toString()).toString(), "grey level " + greyLevel);
+        }
+    }
+
+    @Test
+    void blocksMatchTheWholeImage() throws IOException {
+        for (int greyLevel : GREY_LEVELS) {
+            PGM encoded = PipelineTest.randomImage(WIDTH, HEIGHT, greyLevel, greyLevel).encode();
+            String packed = dir.resolve("blocks-" + greyLevel + ".rmpk").toString();
+            // écriture par blocs de lignes depuis le format texte (PGM.pack)
+            String text = dir.resolve("blocks-" + greyLevel + ".pgm").toString();
+            PGM.write(encoded, text);
+            PGM.pack(text, packed);
+            String whole = encoded.toString();
+            StringBuilder values = new StringBuilder();
+            try (PackedReader reader = new PackedReader(packed)) {
+                assertEquals(WIDTH, reader.getWidth());
+                assertEquals(HEIGHT, reader.getHeight());
+                assertEquals(greyLevel, reader.getGreyLevel());
+                int row = 0;
+                while (reader.hasMoreRows()) {
+                    PGM block = reader.readRows(3);
+                    assertEquals(row, block.getFirstRow());
+                    row += block.getHeight();
+                    String s = block.toString();
+                    values.append(values.length() == 0 ? "" : ", ")
+                            .append(s, s.indexOf("values=[") + "values=[".length(), s.length() - 2);
+                }
+                assertEquals(HEIGHT, row);
+                assertEquals(0, reader.readRows(3).getHeight());
+            }
+            assertEquals(whole.substring(whole.indexOf("values=[") + "values=[".length(), whole.length() - 2),
+                    values.toString(), "grey level " + greyLevel);
+        }
+    }
+
+    @Test
+    void malformedFilesAreRejected() throws IOException {
+        PGM encoded = PipelineTest.randomImage(WIDTH, HEIGHT, 255, 1).encode();
+        Path path = dir.resolve("bad.rmpk");
+        PGM.writePacked(encoded, path.toString());
+        byte[] good = Files.readAllBytes(path);
+
+        byte[] badMagic = good.clone();
+        badMagic[0] = 'X';
+        Files.write(path, badMagic);
+        assertThrows(IllegalArgumentException.class, () -> PGM.readPacked(path.toString()));
+
+        // r = 8 annoncé pour un niveau de gris de 255 (r = 7)
+        byte[] badOrder = good.clone();
+        badOrder[4 * Integer.BYTES] = 8;
+        Files.write(path, badOrder);
+        assertThrows(IllegalArgumentException.class, () -> PGM.readPacked(path.toString()));
+
+        Files.write(path, good);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(file.length() - 1);
+        }
+        assertThrows(IllegalArgumentException.class, () -> PGM.readPacked(path.toString()));
+
+        Files.write(path, new byte[HEADER_BYTES - 1]);
+        assertThrows(IllegalArgumentException.class, () -> PGM.readPacked(path.toString()));
+    }
+
+    @Test
+    void mismatchedOrMissingRowsAreRejected() throws IOException {
+        Path path = dir.resolve("short.rmpk");
+        PackedWriter writer = new PackedWriter(path.toString(), WIDTH, HEIGHT, 255);
+        assertThrows(IllegalArgumentException.class,
+                () -> writer.write(PipelineTest.randomImage(WIDTH, 1, 127, 2).encode()));
+        assertThrows(IllegalArgumentException.class,
+                () -> writer.write(PipelineTest.randomImage(WIDTH, HEIGHT + 1, 255, 2).encode()));
+        writer.write(PipelineTest.randomImage(WIDTH, 1, 255, 2).encode());
+        assertThrows(IOException.class, writer::close);
+        // une seule ligne écrite sur HEIGHT : le fichier est tronqué
+        assertThrows(IllegalArgumentException.class, () -> new PackedReader(path.toString()));
+    }
+}
@@ -0,0 +1,114 @@
+package images;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Vérifie que le pipeline fusionné et le traitement par blocs de lignes
+ * donnent le même résultat que les opérations enchaînées sur l'image entière.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class PipelineTest {
+    // plus d'un bloc de pixels (voir PixelTask), le dernier incomplet
+    private static final int WIDTH = 97;
+    private static final int HEIGHT = 53;
+    // r = 4 (table de décodage), r = 6 (mots de 64 bits) et r = 9 (mots de plus de 64 bits)
+    private static final int[] GREY_LEVELS = {31, 127, 1023};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void fusedPipelineMatchesChainedOperations() {
+        for (int greyLevel : GREY_LEVELS) {
+            PGM image = randomImage(WIDTH, HEIGHT, greyLevel, 7);
+            PGM encoded = image.encode();
+            assertEquals(image.toString(), encoded.decode().toString(), "grey level " + greyLevel);
+            assertEquals(image.toString(), encoded.denoiseAndDecode().toString(), "grey level " + greyLevel);
+
+            PGM chained = encoded.noise(0.05, 8).denoiseAndDecode();
+            PGM fused = image.pipeline().encode().noise(0.05, 8).denoiseAndDecode().apply();
+            assertEquals(chained.toString(), fused.toString(), "grey level " + greyLevel);
+
+            chained = encoded.noise(0.05, 9).denoise().decode();
+            fused = image.pipeline().encode().noise(0.05, 9).denoise().decode().apply();
+            assertEquals(chained.toString(), fused.toString(), "grey level " + greyLevel);
+        }
+    }
+
+    @Test
+    void parallelProcessMatchesWholeImageAndSequentialProcess() throws IOException {
+        for (int greyLevel : GREY_LEVELS) {
+            PGM image = randomImage(WIDTH, HEIGHT, greyLevel, 10);
+            String input = dir.resolve("in-" + greyLevel + ".pgm").toString();
+            PGM.write(image, input);
+
+            String roundTrip = dir.resolve("round-trip-" + greyLevel + ".pgm").toString();
+            PGM.process(input, roundTrip, 7, block -> block.pipeline().encode().denoiseAndDecode().apply(), false, 4);
+            assertEquals(image.toString(), PGM.read(roundTrip).toString(), "grey level " + greyLevel);
+
+            // bruit à graine fixée : même fichier quel que soit le nombre de threads
+            String sequential = dir.resolve("sequential-" + greyLevel + ".pgm").toString();
+            String parallel = dir.resolve("parallel-" + greyLevel + ".pgm").toString();
+            PGM.process(input, sequential, 7, block -> block.encode().noise(0.2, 11).denoise(), false);
+            PGM.process(input, parallel, 7, block -> block.pipeline().encode().noise(0.2, 11).denoise().apply(),
+                    false, 4);
+            assertArrayEquals(Files.readAllBytes(Paths.get(sequential)), Files.readAllBytes(Paths.get(parallel)),
+                    "grey level " + greyLevel);
+        }
+    }
+
+    @Test
+    void seededNoiseDiffersBetweenBlocks() throws IOException {
+        // image uniforme découpée en blocs d'une ligne : le bruit ne doit pas se répéter
+        PGM image = randomImage(WIDTH, 2, 255, 0);
+        String input = dir.resolve("uniform.pgm").toString();
+        PGM.write(image, input);
+        String output = dir.resolve("noised.pgm").toString();
+        PGM.process(input, output, 1, block -> block.encode().noise(0.2, 12), false, 2);
+        try (PGMReader reader = new PGMReader(output)) {
+            assertNotEquals(reader.readRows(1).toString(), reader.readRows(1).toString());
+        }
+    }
+
+    @Test
+    void encodeRejectsPixelsWiderThanTheMessages() {
+        // 2^32 + 1 : tronqué en int, il deviendrait le message 1
+        for (int greyLevel : new int[]{127, 255}) {
+            for (String value : new String[]{"4294967297", Integer.toString(greyLevel + 1)}) {
+                PGM image = new PGM(1, 1, greyLevel, Collections.singletonList(value));
+                assertThrows(IllegalArgumentException.class, image::encode, greyLevel + ", " + value);
+                assertThrows(IllegalArgumentException.class, () -> image.pipeline().encode().noise(0.1, 1).apply(),
+                        greyLevel + ", " + value);
+            }
+        }
+    }
+
+    /**
+     * Construit une image aux pixels aléatoires, ou tous égaux à 0 pour la graine 0.
+     */
+    static PGM randomImage(int width, int height, int greyLevel, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < width * height; i++) {
+            values.add(Integer.toString(seed == 0 ? 0 : random.nextInt(greyLevel + 1)));
+        }
+        return new PGM(width, height, greyLevel, values);
+    }
+}
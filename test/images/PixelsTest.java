@@ -0,0 +1,75 @@
+package images;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Vérifie que le stockage des pixels est dimensionné pour les valeurs que
+ * l'image contient à chaque étape, et pas pour les mots du code.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class PixelsTest {
+
+    @Test
+    void storageFollowsTheDataWidth() {
+        // r = 9 : pixels de 10 bits, mots du code de 512 bits
+        PGM image = new PGM(3, 2, 1023, Arrays.asList("0", "1", "512", "1023", "7", "300"));
+        assertEquals(10, image.getPixels().bits());
+        PGM encoded = image.encode();
+        assertEquals(512, encoded.getPixels().bits());
+        PGM noised = encoded.noise(0.05, 1);
+        assertEquals(512, noised.getPixels().bits());
+        assertEquals(10, noised.denoiseAndDecode().getPixels().bits());
+        assertEquals(10, encoded.decode().getPixels().bits());
+        assertEquals(10, image.pipeline().encode().noise(0.05, 1).denoise().decode().apply().getPixels().bits());
+        assertEquals(image.toString(), encoded.decode().toString());
+    }
+
+    @Test
+    void encodedValuesWidenTheStorage() {
+        PGM image = new PGM(2, 1, 255, Arrays.asList("5", "200"));
+        PGM encoded = image.encode();
+        String values = encoded.toString();
+        values = values.substring(values.indexOf("values=[") + "values=[".length(), values.length() - 2);
+        PGM parsed = new PGM(2, 1, 255, Arrays.asList(values.split(", ")));
+        assertEquals(128, parsed.getPixels().bits());
+        assertEquals(encoded.toString(), parsed.toString());
+        assertEquals(image.toString(), parsed.decode().toString());
+        // un nombre négatif est un mot du code en complément à deux
+        PGM negative = new PGM(1, 1, 255, Collections.singletonList("-1"));
+        assertEquals(128, negative.getPixels().bits());
+    }
+
+    @Test
+    void valuesWiderThanTheCodeAreRejected() {
+        // 2^32 ne tient pas dans un mot de 32 bits (r = 5)
+        assertThrows(IllegalArgumentException.class,
+                () -> new PGM(1, 1, 63, Collections.singletonList("4294967296")));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PGM(1, 1, 255, Collections.singletonList("340282366920938463463374607431768211456")));
+    }
+
+    @Test
+    void widenKeepsTheValues() {
+        Pixels narrow = Pixels.create(3, 8);
+        narrow.set(0, 0);
+        narrow.set(1, 255);
+        narrow.set(2, 17);
+        for (int bits : new int[]{8, 32, 64, 256}) {
+            Pixels wide = narrow.widen(bits);
+            assertEquals(Math.max(bits, 8), wide.bits());
+            for (int i = 0; i < 3; i++) {
+                assertEquals(narrow.get(i), wide.get(i), bits + " bits");
+                assertEquals(narrow.word(i, 256), wide.word(i, 256), bits + " bits");
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> narrow.word(1, 4));
+    }
+}
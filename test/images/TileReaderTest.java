@@ -0,0 +1,87 @@
+package images;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Vérifie que les rectangles lus par {@link TileReader} sont ceux de la
+ * lecture séquentielle du même fichier compact.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class TileReaderTest {
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 23;
+    // r = 1 à 7 et 9 : mots de 2, 4, 8, 16, 32, 64, 128 et 512 bits
+    private static final int[] GREY_LEVELS = {3, 7, 15, 31, 63, 127, 255, 1023};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void tilesMatchSequentialRead() throws IOException {
+        for (int greyLevel : GREY_LEVELS) {
+            String packed = packedNoisyImage(greyLevel);
+            PGM whole = PGM.readPacked(packed).denoiseAndDecode();
+            try (TileReader reader = new TileReader(packed)) {
+                assertEquals(WIDTH, reader.getWidth());
+                assertEquals(HEIGHT, reader.getHeight());
+                assertEquals(greyLevel, reader.getGreyLevel());
+                assertEquals(whole.toString(), reader.readRows(0, HEIGHT).toString(), "grey level " + greyLevel);
+                int[][] tiles = {{0, 0, 1, 1}, {5, 3, 11, 7}, {WIDTH - 4, HEIGHT - 2, 4, 2}, {1, 0, 3, HEIGHT}};
+                for (int[] tile : tiles) {
+                    assertEquals(expectedTile(whole, greyLevel, tile[0], tile[1], tile[2], tile[3]),
+                            reader.readTile(tile[0], tile[1], tile[2], tile[3]).toString(),
+                            "grey level " + greyLevel + ", tile at (" + tile[0] + ", " + tile[1] + ")");
+                }
+                assertThrows(IllegalArgumentException.class, () -> reader.readTile(WIDTH - 1, 0, 2, 1));
+                assertThrows(IllegalArgumentException.class, () -> reader.readRows(HEIGHT, 1));
+            }
+        }
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws IOException {
+        String packed = packedNoisyImage(255);
+        try (RandomAccessFile file = new RandomAccessFile(packed, "rw")) {
+            file.setLength(file.length() - 1);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new TileReader(packed));
+    }
+
+    /**
+     * Écrit une image aléatoire encodée et bruitée au format compact.
+     */
+    private String packedNoisyImage(int greyLevel) throws IOException {
+        PGM image = PipelineTest.randomImage(WIDTH, HEIGHT, greyLevel, greyLevel);
+        String packed = dir.resolve("image-" + greyLevel + ".rmpk").toString();
+        PGM.writePacked(image.pipeline().encode().noise(0.05, greyLevel).apply(), packed);
+        return packed;
+    }
+
+    /**
+     * Découpe un rectangle dans les valeurs d'une image entière (même format que toString).
+     */
+    private static String expectedTile(PGM whole, int greyLevel, int x, int y, int width, int height) {
+        String all = whole.toString();
+        String[] values = all.substring(all.indexOf("values=[") + "values=[".length(), all.length() - 2)
+                .split(", ");
+        List<String> tile = new ArrayList<>();
+        for (int row = y; row < y + height; row++) {
+            for (int col = x; col < x + width; col++) {
+                tile.add(values[row * WIDTH + col]);
+            }
+        }
+        return new PGM(width, height, greyLevel, tile).toString();
+    }
+}
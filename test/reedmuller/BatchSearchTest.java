@@ -0,0 +1,97 @@
+package reedmuller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Vérifie que les opérations par lot (API Vector comprise, si elle est
+ * disponible) donnent le même résultat que mot par mot.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class BatchSearchTest {
+    // pas un multiple du nombre de voies, pour passer aussi par les derniers mots scalaires
+    private static final int WORDS = 1001;
+
+    @Test
+    void fastSearchAllMatchesScalarSearch() {
+        SplittableRandom random = new SplittableRandom(2);
+        for (int r = 1; r <= 6; r++) {
+            ReedMuller rm = ReedMuller.of(r);
+            long[] received = randomWords(rm, random);
+            int[] decoded = new int[WORDS];
+            rm.fastSearchAll(received, decoded);
+            float[] soft = new float[rm.getEndDim()];
+            for (int i = 0; i < WORDS; i++) {
+                for (int b = 0; b < soft.length; b++) {
+                    soft[b] = 1 - 2 * (received[i] >>> b & 1);
+                }
+                assertEquals(rm.fastSearch(received[i]), decoded[i], "r = " + r + ", word " + received[i]);
+                assertEquals(rm.fastSearch(soft), decoded[i], "r = " + r + ", word " + received[i]);
+            }
+        }
+    }
+
+    @Test
+    void semiExhaustiveSearchAllMatchesScalarSearch() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int r = 1; r <= 6; r++) {
+            ReedMuller rm = ReedMuller.of(r);
+            long[] received = randomWords(rm, random);
+            long[] denoised = new long[WORDS];
+            rm.semiExhaustiveSearchAll(received, denoised);
+            for (int i = 0; i < WORDS; i++) {
+                assertEquals(rm.semiExhaustiveSearch(received[i]), denoised[i], "r = " + r);
+                Word word = Word.fromLong(received[i], rm.getEndDim());
+                assertEquals(denoised[i], rm.semiExhaustiveSearch(word).toLong(), "r = " + r);
+            }
+        }
+    }
+
+    @Test
+    void encodeNoiseAndDecodeAllMatchScalarOperations() {
+        SplittableRandom random = new SplittableRandom(4);
+        for (int r = 1; r <= 6; r++) {
+            ReedMuller rm = ReedMuller.of(r);
+            int[] messages = new int[WORDS];
+            for (int i = 0; i < WORDS; i++) {
+                messages[i] = random.nextInt(1 << rm.getStartDim());
+            }
+            long[] encoded = new long[WORDS];
+            rm.encodeAll(messages, encoded);
+            int[] decoded = new int[WORDS];
+            rm.decodeAll(encoded, decoded);
+            long[] noised = new long[WORDS];
+            rm.noiseAll(encoded, noised, new BinarySymmetricChannel(0.1, 5));
+            BinarySymmetricChannel channel = new BinarySymmetricChannel(0.1, 5);
+            for (int i = 0; i < WORDS; i++) {
+                assertEquals(rm.encode(messages[i]), encoded[i], "r = " + r);
+                assertEquals(messages[i], decoded[i], "r = " + r);
+                assertEquals(rm.noise(encoded[i], channel), noised[i], "r = " + r);
+            }
+            if (r <= 5) {
+                int[] narrow = new int[WORDS];
+                rm.encodeAll(messages, narrow);
+                for (int i = 0; i < WORDS; i++) {
+                    assertEquals(encoded[i], narrow[i] & 0xFFFFFFFFL, "r = " + r);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tire des mots reçus quelconques (égalités de corrélation comprises).
+     */
+    private static long[] randomWords(ReedMuller rm, SplittableRandom random) {
+        long[] words = new long[WORDS];
+        long mask = rm.getEndDim() == Long.SIZE ? -1L : (1L << rm.getEndDim()) - 1;
+        for (int i = 0; i < WORDS; i++) {
+            words[i] = random.nextLong() & mask;
+        }
+        return words;
+    }
+}
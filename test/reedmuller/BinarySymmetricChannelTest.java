@@ -0,0 +1,105 @@
+package reedmuller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests statistiques et de reproductibilité du canal binaire symétrique.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class BinarySymmetricChannelTest {
+    private static final int WORDS = 200_000;
+
+    @Test
+    void flipRateMatchesTheProbability() {
+        for (double p : new double[]{0.001, 0.01, 0.05, 0.3, 0.5, 0.9}) {
+            BinarySymmetricChannel channel = new BinarySymmetricChannel(p, 1);
+            long bits = (long) WORDS * Long.SIZE;
+            long flips = 0;
+            // bits inversés juste après un bit inversé, pour vérifier l'indépendance
+            long pairs = 0;
+            long previous = 0;
+            for (int i = 0; i < WORDS; i++) {
+                long mask = channel.nextMask(Long.SIZE);
+                flips += Long.bitCount(mask);
+                pairs += Long.bitCount(mask & (mask << 1 | previous >>> 63));
+                previous = mask;
+            }
+            // à 6 écarts types de la loi binomiale
+            double rate = (double) flips / bits;
+            assertEquals(p, rate, 6 * Math.sqrt(p * (1 - p) / bits), "p = " + p);
+            double conditional = (double) pairs / flips;
+            assertEquals(p, conditional, 6 * Math.sqrt(p * (1 - p) / flips), "p = " + p);
+        }
+    }
+
+    @Test
+    void extremeProbabilities() {
+        BinarySymmetricChannel never = new BinarySymmetricChannel(0.0, 2);
+        BinarySymmetricChannel always = new BinarySymmetricChannel(1.0, 2);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, never.nextMask(Long.SIZE));
+            assertEquals(-1L, always.nextMask(Long.SIZE));
+            assertEquals(0b11111, always.transmit(0, 5));
+        }
+        assertEquals(0, never.transmit(new Word(300)).popCount());
+        assertEquals(300, always.transmit(new Word(300)).popCount());
+    }
+
+    @Test
+    void wordsFormOneStream() {
+        // à graine égale, le découpage en mots ne change pas les bits inversés
+        for (double p : new double[]{0.01, 0.2}) {
+            BinarySymmetricChannel whole = new BinarySymmetricChannel(p, 3);
+            BinarySymmetricChannel halves = new BinarySymmetricChannel(p, 3);
+            BinarySymmetricChannel words = new BinarySymmetricChannel(p, 3);
+            for (int i = 0; i < 10_000; i++) {
+                long first = whole.nextMask(Long.SIZE);
+                long second = whole.nextMask(Long.SIZE);
+                long low = halves.nextMask(Integer.SIZE) | halves.nextMask(Integer.SIZE) << Integer.SIZE;
+                long high = halves.nextMask(Long.SIZE);
+                assertEquals(first, low, "p = " + p);
+                assertEquals(second, high, "p = " + p);
+                Word received = words.transmit(new Word(2 * Long.SIZE));
+                assertEquals(Word.fromLongs(new long[]{first, second}, 0, 2 * Long.SIZE), received, "p = " + p);
+            }
+        }
+    }
+
+    @Test
+    void sameSeedSameStream() {
+        BinarySymmetricChannel one = new BinarySymmetricChannel(0.1, 4);
+        BinarySymmetricChannel two = new BinarySymmetricChannel(0.1, 4);
+        long[] words = new long[1000];
+        long[] received = new long[words.length];
+        one.transmitAll(words, received, 16);
+        for (long word : received) {
+            assertEquals(word, two.transmit(0, 16));
+            assertTrue(word >>> 16 == 0);
+        }
+        // un canal séparé a son propre flux
+        BinarySymmetricChannel split = new BinarySymmetricChannel(0.1, 4).split();
+        long same = 0;
+        BinarySymmetricChannel three = new BinarySymmetricChannel(0.1, 4);
+        for (int i = 0; i < 1000; i++) {
+            same += split.nextMask(Long.SIZE) == three.nextMask(Long.SIZE) ? 1 : 0;
+        }
+        assertTrue(same < 100, same + " identical masks");
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BinarySymmetricChannel(-0.1, 5));
+        assertThrows(IllegalArgumentException.class, () -> new BinarySymmetricChannel(1.1, 5));
+        assertThrows(IllegalArgumentException.class, () -> new BinarySymmetricChannel(Double.NaN, 5));
+        BinarySymmetricChannel channel = new BinarySymmetricChannel(0.1, 5);
+        assertThrows(IllegalArgumentException.class, () -> channel.nextMask(65));
+        assertThrows(IllegalArgumentException.class, () -> channel.nextMask(-1));
+        assertThrows(IllegalArgumentException.class, () -> channel.transmitAll(new long[2], new long[1], 8));
+    }
+}
@@ -0,0 +1,64 @@
+package reedmuller;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests d'aller-retour de l'écriture et de la lecture de bits mis bout à bout.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class BitReaderTest {
+
+    @Test
+    void wordsOfAnySizeRoundTrip() throws IOException {
+        SplittableRandom random = new SplittableRandom(1);
+        int[] sizes = new int[100_000];
+        long[] values = new long[sizes.length];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BitWriter writer = new BitWriter(Channels.newChannel(out));
+        long bits = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = 1 + random.nextInt(Long.SIZE);
+            values[i] = sizes[i] == Long.SIZE ? random.nextLong() : random.nextLong() & (1L << sizes[i]) - 1;
+            writer.putBits(values[i], sizes[i]);
+            bits += sizes[i];
+        }
+        writer.finish();
+        byte[] bytes = out.toByteArray();
+        assertEquals((bits + Byte.SIZE - 1) / Byte.SIZE, bytes.length);
+
+        BitReader reader = new BitReader(Channels.newChannel(new ByteArrayInputStream(bytes)));
+        for (int i = 0; i < sizes.length; i++) {
+            assertEquals(values[i], reader.getBits(sizes[i]), "word " + i);
+        }
+        // bits de complément jusqu'à l'octet, puis fin du flux
+        int padding = (int) (bytes.length * (long) Byte.SIZE - bits);
+        if (padding > 0) {
+            assertEquals(0, reader.getBits(padding));
+        }
+        assertThrows(IllegalArgumentException.class, () -> reader.getBits(1));
+    }
+
+    @Test
+    void leastSignificantBitsComeFirst() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BitWriter writer = new BitWriter(Channels.newChannel(out));
+        writer.putBits(0b01, 2);
+        writer.putBits(0b1, 1);
+        writer.putBits(0b11111, 5);
+        writer.putBits(0xABCD, 16);
+        writer.finish();
+        assertArrayEquals(new byte[]{(byte) 0b11111101, (byte) 0xCD, (byte) 0xAB}, out.toByteArray());
+    }
+}
@@ -0,0 +1,131 @@
+package reedmuller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Tests des compteurs du codec. Les métriques étant communes à la JVM,
+ * chaque test les remet à zéro et les désactive en fin de test.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class CodecMetricsTest {
+    private final CodecMetrics metrics = CodecMetrics.get();
+
+    @BeforeEach
+    void enable() {
+        metrics.reset();
+        metrics.setEnabled(true);
+    }
+
+    @AfterEach
+    void disable() {
+        metrics.setEnabled(false);
+        metrics.reset();
+    }
+
+    @Test
+    void nothingIsCountedWhenDisabled() {
+        metrics.setEnabled(false);
+        ReedMuller rm = ReedMuller.of(3);
+        long codeword = rm.encode(5);
+        rm.decode(codeword);
+        rm.semiExhaustiveSearch(codeword ^ 1);
+        CodecMetrics.operation("encode", 1000);
+        assertEquals(0, metrics.getWordsEncoded());
+        assertEquals(0, metrics.getWordsDecoded());
+        assertEquals(0, metrics.getMeanCorrectedBits());
+        assertEquals(Collections.emptyMap(), metrics.getOperationCounts());
+    }
+
+    @Test
+    void wordsAreCountedOnceEach() {
+        ReedMuller rm = ReedMuller.of(4);
+        int[] messages = new int[100];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = i % (1 << rm.getStartDim());
+        }
+        long[] words = new long[messages.length];
+        rm.encodeAll(messages, words);
+        rm.encode(3);
+        rm.encode(Word.fromLong(3, rm.getStartDim()));
+        assertEquals(messages.length + 2, metrics.getWordsEncoded());
+
+        int[] decoded = new int[words.length];
+        rm.decodeAll(words, decoded);
+        rm.fastSearchAll(words, decoded);
+        rm.decode(words[0]);
+        assertEquals(2 * words.length + 1, metrics.getWordsDecoded());
+    }
+
+    @Test
+    void correctedBitsHistogram() {
+        ReedMuller rm = ReedMuller.of(5);
+        long codeword = rm.encode(17);
+        long[] noised = {codeword, codeword ^ 1, codeword ^ 0b11, codeword ^ 0b111, codeword ^ 0b101};
+        long[] denoised = new long[noised.length];
+        rm.semiExhaustiveSearchAll(noised, denoised);
+        rm.semiExhaustiveSearch(codeword ^ 0b1000_0001);
+        long[] expected = new long[65];
+        expected[0] = 1;
+        expected[1] = 1;
+        expected[2] = 3;
+        expected[3] = 1;
+        assertArrayEquals(expected, metrics.getCorrectedBitsHistogram());
+        assertEquals((0 + 1 + 2 + 3 + 2 + 2) / 6.0, metrics.getMeanCorrectedBits(), 1e-12);
+        assertEquals(0, metrics.getAmbiguousDecodes());
+    }
+
+    @Test
+    void tiesAreCountedAsAmbiguous() {
+        // r = 2 : les mots du code sont les mots de poids pair, un mot de
+        // poids impair est à distance 1 de quatre d'entre eux
+        ReedMuller rm = ReedMuller.of(2);
+        rm.semiExhaustiveSearch(0b0001L);
+        rm.semiExhaustiveSearch(0b0111L);
+        rm.semiExhaustiveSearch(0b0011L);
+        assertEquals(2, metrics.getAmbiguousDecodes());
+        assertEquals(2, metrics.getCorrectedBitsHistogram()[1]);
+        assertEquals(1, metrics.getCorrectedBitsHistogram()[0]);
+    }
+
+    @Test
+    void operationsAreTimed() {
+        CodecMetrics.operation("encode", 1_000_000);
+        CodecMetrics.operation("encode", 3_000_000);
+        CodecMetrics.operation("noise", 500_000);
+        assertEquals(2L, metrics.getOperationCounts().get("encode"));
+        assertEquals(1L, metrics.getOperationCounts().get("noise"));
+        assertEquals(2.0, metrics.getOperationMeanMillis().get("encode"), 1e-9);
+        assertEquals(3.0, metrics.getOperationMaxMillis().get("encode"), 1e-9);
+        assertEquals(0.5, metrics.getOperationMaxMillis().get("noise"), 1e-9);
+        metrics.reset();
+        assertEquals(Collections.emptyMap(), metrics.getOperationCounts());
+    }
+
+    @Test
+    void countersArePublishedOverJmx() throws Exception {
+        CodecMetrics.register();
+        CodecMetrics.register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(CodecMetrics.OBJECT_NAME);
+        ReedMuller.of(3).encode(1);
+        assertEquals(1L, server.getAttribute(name, "WordsEncoded"));
+        server.setAttribute(name, new Attribute("Enabled", false));
+        assertFalse(CodecMetrics.enabled());
+        ReedMuller.of(3).encode(1);
+        assertEquals(1L, server.getAttribute(name, "WordsEncoded"));
+    }
+}
@@ -0,0 +1,68 @@
+package reedmuller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests des deux règles d'arrêt de la simulation des taux d'erreur.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class ErrorRateSimulationTest {
+    private static final long MAX_FRAMES = 1_000_000_000L;
+
+    @Test
+    void noisyPointStopsWhenTheIntervalIsNarrow() {
+        ErrorRateSimulation simulation = new ErrorRateSimulation(0.95, 0.1, 0.0, MAX_FRAMES, 1,
+                ForkJoinPool.commonPool());
+        ErrorRateSimulation.ErrorRate result = simulation.run(ReedMuller.of(3), 0.2);
+        assertTrue(result.getFrames() < MAX_FRAMES);
+        assertTrue(result.getFrameErrors() >= 20);
+        assertTrue(result.getFrameErrorRateHalfWidth() <= 0.1 * result.getFrameErrorRate());
+    }
+
+    @Test
+    void errorFreePointStopsBelowTheFloor() {
+        ErrorRateSimulation simulation = new ErrorRateSimulation(0.95, 0.1, 1e-5, MAX_FRAMES, 1,
+                ForkJoinPool.commonPool());
+        ErrorRateSimulation.ErrorRate result = simulation.run(ReedMuller.of(3), 0.0);
+        assertEquals(0, result.getFrameErrors());
+        assertTrue(result.getFrames() < 10_000_000L, result.toString());
+        // sans erreur, la borne supérieure est -ln(0.05) / frames, environ 3 / frames
+        assertTrue(result.getFrameErrorRateHalfWidth() < 1e-5);
+        assertEquals(-Math.log(0.05) / result.getFrames(), result.getFrameErrorRateHalfWidth(), 1e-12);
+    }
+
+    @Test
+    void sameSeedGivesTheSameResultOnAnyPool() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            ErrorRateSimulation.ErrorRate one = new ErrorRateSimulation(0.95, 0.1, 1e-6, 2_000_000L, 7, single)
+                    .run(ReedMuller.of(4), 0.05);
+            ErrorRateSimulation.ErrorRate all = new ErrorRateSimulation(0.95, 0.1, 1e-6, 2_000_000L, 7,
+                    ForkJoinPool.commonPool()).run(ReedMuller.of(4), 0.05);
+            assertEquals(one.getFrames(), all.getFrames());
+            assertEquals(one.getFrameErrors(), all.getFrameErrors());
+            assertEquals(one.getBitErrors(), all.getBitErrors());
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        assertThrows(IllegalArgumentException.class, () -> new ErrorRateSimulation(0.95, 0.1, -1e-6, 10, 1, pool));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ErrorRateSimulation(0.95, 0.1, Double.NaN, 10, 1, pool));
+        assertThrows(IllegalArgumentException.class, () -> new ErrorRateSimulation(1.0, 0.1, 10, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ErrorRateSimulation(0.95, 0.1, 10, 1).run(ReedMuller.of(3), Double.NaN));
+    }
+}
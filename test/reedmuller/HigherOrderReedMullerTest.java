@@ -0,0 +1,164 @@
+package reedmuller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests du codage RM(k, m) par la transformée de Möbius et du décodage à
+ * logique majoritaire.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class HigherOrderReedMullerTest {
+
+    @Test
+    void encodingMatchesTheGeneratorMatrix() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int m = 0; m <= 8; m++) {
+            for (int k = 0; k <= m; k++) {
+                HigherOrderReedMuller code = new HigherOrderReedMuller(k, m);
+                Word[] generator = generator(k, m);
+                assertEquals(generator.length, code.getStartDim(), "RM(" + k + ", " + m + ")");
+                for (int n = 0; n < 20; n++) {
+                    Word message = randomWord(random, code.getStartDim());
+                    Word expected = new Word(code.getEndDim());
+                    for (int row = 0; row < generator.length; row++) {
+                        if (message.get(row) == 1) {
+                            expected = expected.xor(generator[row]);
+                        }
+                    }
+                    assertEquals(expected, code.encode(message), "RM(" + k + ", " + m + ")");
+                    if (m <= ReedMuller.LONG_MAX_R) {
+                        assertEquals(expected.toLong(), code.encode(message.toLong()), "RM(" + k + ", " + m + ")");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void encodeThenDecodeGivesTheMessage() {
+        SplittableRandom random = new SplittableRandom(2);
+        for (int m = 0; m <= 10; m++) {
+            for (int k = 0; k <= m; k++) {
+                HigherOrderReedMuller code = new HigherOrderReedMuller(k, m);
+                for (int n = 0; n < 20; n++) {
+                    Word message = randomWord(random, code.getStartDim());
+                    assertEquals(message, code.decode(code.encode(message)), "RM(" + k + ", " + m + ")");
+                    if (m <= ReedMuller.LONG_MAX_R) {
+                        long encoded = code.encode(message.toLong());
+                        assertEquals(message.toLong(), code.decode(encoded), "RM(" + k + ", " + m + ")");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void decodeCorrectsUpToHalfTheMinimumDistance() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int m = 1; m <= 10; m++) {
+            for (int k = 0; k < m; k++) {
+                HigherOrderReedMuller code = new HigherOrderReedMuller(k, m);
+                int errors = (1 << (m - k - 1)) - 1;
+                assertEquals(errors, code.getCorrectableErrors(), "RM(" + k + ", " + m + ")");
+                for (int n = 0; n < 20; n++) {
+                    Word message = randomWord(random, code.getStartDim());
+                    Word received = code.encode(message);
+                    flipDistinct(random, received, errors);
+                    assertEquals(message, code.decode(received), "RM(" + k + ", " + m + ")");
+                    if (m <= ReedMuller.LONG_MAX_R) {
+                        assertEquals(message.toLong(), code.decode(received.toLong()), "RM(" + k + ", " + m + ")");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void firstOrderMatchesReedMuller() {
+        SplittableRandom random = new SplittableRandom(4);
+        for (int r = 1; r <= 8; r++) {
+            HigherOrderReedMuller code = new HigherOrderReedMuller(1, r);
+            ReedMuller rm = ReedMuller.of(r);
+            assertEquals(rm.getStartDim(), code.getStartDim(), "r = " + r);
+            assertEquals(rm.getEndDim(), code.getEndDim(), "r = " + r);
+            for (int n = 0; n < 50; n++) {
+                Word message = randomWord(random, rm.getStartDim());
+                Word encoded = rm.encode(message);
+                assertEquals(encoded, code.encode(message), "r = " + r);
+                flipDistinct(random, encoded, code.getCorrectableErrors());
+                assertEquals(rm.fastSearch(encoded), code.decode(encoded), "r = " + r);
+            }
+        }
+    }
+
+    @Test
+    void invalidParametersAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new HigherOrderReedMuller(0, -1));
+        assertThrows(IllegalArgumentException.class, () -> new HigherOrderReedMuller(3, 2));
+        assertThrows(IllegalArgumentException.class, () -> new HigherOrderReedMuller(-1, 2));
+        HigherOrderReedMuller code = new HigherOrderReedMuller(2, 4);
+        assertThrows(IllegalArgumentException.class, () -> code.encode(new Word(code.getStartDim() + 1)));
+        assertThrows(IllegalArgumentException.class, () -> code.decode(new Word(code.getEndDim() - 1)));
+        assertThrows(IllegalArgumentException.class, () -> code.encode(1L << code.getStartDim()));
+        assertThrows(IllegalArgumentException.class, () -> new HigherOrderReedMuller(1, 7).encode(0L));
+    }
+
+    /**
+     * Construit la matrice génératrice ligne par ligne, dans l'ordre des bits
+     * du message : monômes de degré 1 à k par masque croissant, puis le
+     * monôme constant. La ligne du monôme s vaut 1 aux points j où s & j == s.
+     */
+    private static Word[] generator(int k, int m) {
+        int points = 1 << m;
+        int rows = 0;
+        Word[] generator = new Word[points];
+        for (int d = 1; d <= k; d++) {
+            for (int s = 0; s < points; s++) {
+                if (Integer.bitCount(s) == d) {
+                    generator[rows++] = evaluate(s, points);
+                }
+            }
+        }
+        generator[rows++] = evaluate(0, points);
+        Word[] result = new Word[rows];
+        System.arraycopy(generator, 0, result, 0, rows);
+        return result;
+    }
+
+    private static Word evaluate(int s, int points) {
+        Word row = new Word(points);
+        for (int j = 0; j < points; j++) {
+            if ((s & j) == s) {
+                row.set(j, 1);
+            }
+        }
+        return row;
+    }
+
+    private static Word randomWord(SplittableRandom random, int size) {
+        Word word = new Word(size);
+        for (int i = 0; i < size; i++) {
+            word.set(i, random.nextInt(2));
+        }
+        return word;
+    }
+
+    private static void flipDistinct(SplittableRandom random, Word word, int errors) {
+        Word flipped = new Word(word.size());
+        for (int e = 0; e < errors; ) {
+            int bit = random.nextInt(word.size());
+            if (flipped.get(bit) == 0) {
+                flipped.set(bit, 1);
+                word.flip(bit);
+                e++;
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package reedmuller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests d'aller-retour du codage et de la table de décodage (r <= 4).
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class ReedMullerTest {
+
+    @Test
+    void encodeThenDecodeGivesTheMessage() {
+        for (int r = 1; r <= 8; r++) {
+            ReedMuller rm = ReedMuller.of(r);
+            for (int message = 0; message < 1 << rm.getStartDim(); message++) {
+                Word word = Word.fromLong(message, rm.getStartDim());
+                Word encoded = rm.encode(word);
+                assertEquals(word, rm.decode(encoded), "r = " + r);
+                assertEquals(word, rm.fastSearch(encoded), "r = " + r);
+                if (r <= 6) {
+                    long codeword = rm.encode(message);
+                    assertEquals(encoded.toLong(), codeword, "r = " + r);
+                    assertEquals(message, rm.decode(codeword), "r = " + r);
+                    assertEquals(message, rm.fastSearch(codeword), "r = " + r);
+                }
+            }
+        }
+    }
+
+    @Test
+    void fastSearchCorrectsLessThanAQuarterOfTheBits() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int r = 1; r <= 8; r++) {
+            ReedMuller rm = ReedMuller.of(r);
+            for (int n = 0; n < 200; n++) {
+                int message = random.nextInt(1 << rm.getStartDim());
+                Word received = rm.encode(Word.fromLong(message, rm.getStartDim()));
+                int errors = (rm.getEndDim() - 1) / 4;
+                for (int e = 0; e < errors; e++) {
+                    received.flip(random.nextInt(rm.getEndDim()));
+                }
+                assertEquals(message, rm.fastSearch(received).toLong(), "r = " + r);
+            }
+        }
+    }
+
+    @Test
+    void semiExhaustiveSearchFindsANearestCodeword() {
+        // r <= 8 : dictionnaire des mots du code, r > 8 : parcours dans l'ordre du code de Gray
+        SplittableRandom random = new SplittableRandom(6);
+        for (int r = 5; r <= 9; r++) {
+            ReedMuller rm = ReedMuller.of(r);
+            Word[] codewords = new Word[1 << rm.getStartDim()];
+            for (int m = 0; m < codewords.length; m++) {
+                codewords[m] = rm.encode(Word.fromLong(m, rm.getStartDim()));
+            }
+            for (int n = 0; n < 20; n++) {
+                Word received = rm.noise(codewords[random.nextInt(codewords.length)], 0.3, random);
+                int min = Integer.MAX_VALUE;
+                for (Word codeword : codewords) {
+                    min = Math.min(min, Word.distance(codeword, received));
+                }
+                Word denoised = rm.semiExhaustiveSearch(received);
+                assertEquals(min, Word.distance(denoised, received), "r = " + r);
+                assertEquals(denoised, rm.encode(rm.decode(denoised)), "r = " + r);
+            }
+        }
+    }
+
+    @Test
+    void lookupTableMatchesTheHadamardTransform() {
+        // la recherche rapide sur valeurs souples +1/-1 calcule la transformée, sans table
+        for (int r = 1; r <= 4; r++) {
+            ReedMuller rm = ReedMuller.of(r);
+            float[] soft = new float[rm.getEndDim()];
+            for (long received = 0; received < 1L << rm.getEndDim(); received++) {
+                for (int b = 0; b < soft.length; b++) {
+                    soft[b] = 1 - 2 * (received >>> b & 1);
+                }
+                int expected = rm.fastSearch(soft);
+                assertEquals(expected, rm.fastSearch(received), "r = " + r + ", word " + received);
+                Word word = Word.fromLong(received, rm.getEndDim());
+                assertEquals(expected, rm.fastSearch(word).toLong(), "r = " + r + ", word " + received);
+            }
+        }
+    }
+
+    @Test
+    void ofSharesOneCodePerOrder() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            // ordres non utilisés par les autres tests : le code est construit ici
+            for (int r = 10; r <= 12; r++) {
+                int order = r;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<ReedMuller>> codes = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    codes.add(pool.submit((Callable<ReedMuller>) () -> {
+                        start.await();
+                        return ReedMuller.of(order);
+                    }));
+                }
+                start.countDown();
+                ReedMuller first = codes.get(0).get();
+                assertEquals(r, first.getR());
+                for (Future<ReedMuller> code : codes) {
+                    assertSame(first, code.get(), "r = " + r);
+                }
+                assertSame(first, ReedMuller.of(r), "r = " + r);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package reedmuller;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests d'aller-retour du codage des flux d'octets et de ses erreurs.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class StreamCodecTest {
+    // en-tête non codé : "RMST" et r
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    @Test
+    void roundTripForEveryOrder() throws IOException {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int r = 1; r <= 6; r++) {
+            for (int length : new int[]{0, 1, 3, 7, 1000}) {
+                byte[] data = randomBytes(random, length);
+                assertArrayEquals(data, decode(encode(data, r)), "r = " + r + ", " + length + " bytes");
+            }
+        }
+    }
+
+    @Test
+    void multiFrameStream() throws IOException {
+        SplittableRandom random = new SplittableRandom(2);
+        // deux trames pleines, une incomplète puis la trame de fin
+        byte[] data = randomBytes(random, 2 * StreamCodec.FRAME_BYTES + 123);
+        for (int r = 1; r <= 6; r++) {
+            byte[] encoded = encode(data, r);
+            long expectedBits = 0;
+            int lengthMessages = (Integer.SIZE + r) / (r + 1);
+            for (int frame : new int[]{StreamCodec.FRAME_BYTES, StreamCodec.FRAME_BYTES, 123, 0}) {
+                long messages = ((long) frame * Byte.SIZE + r) / (r + 1);
+                expectedBits += (lengthMessages + messages) << r;
+            }
+            assertEquals(HEADER_BYTES + (expectedBits + Byte.SIZE - 1) / Byte.SIZE, encoded.length, "r = " + r);
+            assertArrayEquals(data, decode(encode(data, r)), "r = " + r);
+        }
+        // une trame exactement pleine, suivie directement de la trame de fin
+        byte[] full = randomBytes(random, StreamCodec.FRAME_BYTES);
+        assertArrayEquals(full, decode(encode(full, 4)));
+    }
+
+    @Test
+    void singleErrorPerWordIsCorrected() throws IOException {
+        SplittableRandom random = new SplittableRandom(3);
+        byte[] data = randomBytes(random, 5000);
+        // à partir de r = 3, la recherche rapide corrige une erreur par mot
+        for (int r = 3; r <= 6; r++) {
+            byte[] encoded = encode(data, r);
+            int wordBits = 1 << r;
+            long words = (encoded.length - HEADER_BYTES) * (long) Byte.SIZE / wordBits;
+            for (long w = 0; w < words; w++) {
+                long bit = HEADER_BYTES * (long) Byte.SIZE + w * wordBits + random.nextInt(wordBits);
+                encoded[(int) (bit / Byte.SIZE)] ^= 1 << (bit % Byte.SIZE);
+            }
+            assertArrayEquals(data, decode(encoded), "r = " + r);
+        }
+    }
+
+    @Test
+    void truncatedStreamIsRejected() throws IOException {
+        byte[] encoded = encode(randomBytes(new SplittableRandom(4), 1000), 5);
+        for (int cut : new int[]{1, 8, encoded.length / 2, encoded.length - HEADER_BYTES - 1}) {
+            byte[] truncated = Arrays.copyOf(encoded, encoded.length - cut);
+            assertThrows(IllegalArgumentException.class, () -> decode(truncated), cut + " bytes cut");
+        }
+    }
+
+    @Test
+    void corruptedStreamIsRejected() throws IOException {
+        byte[] encoded = encode(randomBytes(new SplittableRandom(5), 1000), 5);
+        byte[] badMagic = encoded.clone();
+        badMagic[0] ^= 1;
+        assertThrows(IllegalArgumentException.class, () -> decode(badMagic));
+        byte[] badOrder = encoded.clone();
+        badOrder[Integer.BYTES] = 9;
+        assertThrows(IllegalArgumentException.class, () -> decode(badOrder));
+        // taille de la première trame remplacée par des mots quelconques, au-delà de FRAME_BYTES
+        byte[] badLength = encoded.clone();
+        Arrays.fill(badLength, HEADER_BYTES, HEADER_BYTES + 4 * Integer.BYTES, (byte) 0x0F);
+        assertThrows(IllegalArgumentException.class, () -> decode(badLength));
+        assertThrows(IllegalArgumentException.class, () -> encode(new byte[1], 7));
+    }
+
+    private static byte[] randomBytes(SplittableRandom random, int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) random.nextInt();
+        }
+        return data;
+    }
+
+    private static byte[] encode(byte[] data, int r) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(data.length, StreamCodec.encode(new ByteArrayInputStream(data), out, r));
+        return out.toByteArray();
+    }
+
+    private static byte[] decode(byte[] encoded) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = StreamCodec.decode(new ByteArrayInputStream(encoded), out);
+        assertEquals(out.size(), written);
+        return out.toByteArray();
+    }
+}
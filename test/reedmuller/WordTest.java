@@ -0,0 +1,137 @@
+package reedmuller;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests des conversions des mots vers et depuis les long et les BigInteger.
+ *
+ * @author Raed Abdennadher
+ * @author Steven Liatti
+ */
+class WordTest {
+    // tailles autour des frontières des long
+    private static final int[] SIZES = {1, 2, 31, 63, 64, 65, 127, 128, 129, 200, 512};
+
+    @Test
+    void bigIntToWordExtendsTheSignOfNegatives() {
+        // taille minimale : complément à deux, bit de signe compris
+        assertWord("1", Word.bigIntToWord(BigInteger.valueOf(-1)));
+        assertWord("10", Word.bigIntToWord(BigInteger.valueOf(-2)));
+        assertWord("1011", Word.bigIntToWord(BigInteger.valueOf(-5)));
+        assertWord("0", Word.bigIntToWord(BigInteger.ZERO));
+        assertWord("101", Word.bigIntToWord(BigInteger.valueOf(5)));
+        // taille donnée : les bits de poids fort d'un négatif valent 1
+        for (int size : SIZES) {
+            BigInteger modulus = BigInteger.ONE.shiftLeft(size);
+            for (long n : new long[]{-1, -2, -5, Long.MIN_VALUE}) {
+                BigInteger value = BigInteger.valueOf(n);
+                if (value.bitLength() >= size) {
+                    continue;
+                }
+                Word word = Word.bigIntToWord(value, size);
+                assertEquals(size, word.size());
+                assertEquals(value.add(modulus), Word.wordToBigInt(word), n + " on " + size + " bits");
+            }
+        }
+        BigInteger big = BigInteger.ONE.shiftLeft(150).negate().add(BigInteger.valueOf(3));
+        assertEquals(big.add(BigInteger.ONE.shiftLeft(200)), Word.wordToBigInt(Word.bigIntToWord(big, 200)));
+        assertEquals(151, Word.bigIntToWord(big).size());
+    }
+
+    @Test
+    void bigIntRoundTripBeyondALong() {
+        Random random = new Random(1);
+        for (int size : SIZES) {
+            for (int n = 0; n < 50; n++) {
+                BigInteger value = new BigInteger(size, random);
+                Word word = Word.bigIntToWord(value, size);
+                assertEquals(size, word.size());
+                for (int i = 0; i < size; i++) {
+                    assertEquals(value.testBit(i) ? 1 : 0, word.get(i), "bit " + i + " on " + size + " bits");
+                }
+                assertEquals(value, Word.wordToBigInt(word), size + " bits");
+            }
+        }
+        // 2^63 a 64 bits significatifs : sa valeur long est négative
+        BigInteger top = BigInteger.ONE.shiftLeft(63);
+        assertEquals(top, Word.wordToBigInt(Word.bigIntToWord(top, 64)));
+        assertEquals(top, Word.wordToBigInt(Word.bigIntToWord(top, 100)));
+        assertEquals(64, Word.bigIntToWord(top).size());
+    }
+
+    @Test
+    void bigIntToWordRejectsValuesThatDontFit() {
+        assertThrows(IllegalArgumentException.class, () -> Word.bigIntToWord(BigInteger.valueOf(4), 2));
+        assertThrows(IllegalArgumentException.class, () -> Word.bigIntToWord(BigInteger.valueOf(-3), 2));
+        assertThrows(IllegalArgumentException.class, () -> Word.bigIntToWord(BigInteger.ONE.shiftLeft(64), 64));
+        assertThrows(IllegalArgumentException.class, () -> Word.bigIntToWord(BigInteger.ZERO, 0));
+    }
+
+    @Test
+    void fromLongThenToLongGivesTheValue() {
+        SplittableRandom random = new SplittableRandom(2);
+        for (int size = 1; size <= Long.SIZE; size++) {
+            long mask = size == Long.SIZE ? -1L : (1L << size) - 1;
+            for (int n = 0; n < 100; n++) {
+                long value = random.nextLong() & mask;
+                assertEquals(value, Word.fromLong(value, size).toLong(), size + " bits");
+                // un négatif est pris en complément à deux sur size bits
+                long negative = value | ~(mask >>> 1);
+                assertEquals(negative & mask, Word.fromLong(negative, size).toLong(), size + " bits");
+            }
+        }
+        assertEquals(0xFD, Word.fromLong(-3, 8).toLong());
+        assertEquals(-1L, Word.fromLong(-1, 64).toLong());
+        assertEquals(0, Word.fromLong(0, 0).size());
+        assertThrows(IllegalArgumentException.class, () -> Word.fromLong(256, 8));
+        assertThrows(IllegalArgumentException.class, () -> Word.fromLong(-129, 8));
+        assertThrows(IllegalArgumentException.class, () -> Word.fromLong(0, 65));
+        assertThrows(IllegalArgumentException.class, () -> new Word(65).toLong());
+    }
+
+    @Test
+    void toLongsThenFromLongsGivesTheWord() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int size : SIZES) {
+            Word word = new Word(size);
+            for (int i = 0; i < size; i++) {
+                word.set(i, random.nextInt(2));
+            }
+            long[] longs = word.toLongs();
+            assertEquals((size + 63) / 64, longs.length);
+            assertEquals(word, Word.fromLongs(longs, 0, size), size + " bits");
+            // copie à un décalage, entourée de bits quelconques
+            long[] padded = new long[longs.length + 2];
+            padded[0] = -1L;
+            padded[padded.length - 1] = -1L;
+            word.toLongs(padded, 1);
+            assertEquals(word, Word.fromLongs(padded, 1, size), size + " bits");
+            // les bits au-delà de size sont ignorés
+            longs[longs.length - 1] |= size % 64 == 0 ? 0 : -1L << (size % 64);
+            assertEquals(word, Word.fromLongs(longs, 0, size), size + " bits");
+            // le tableau rendu est une copie
+            int first = word.get(0);
+            word.toLongs()[0] ^= 1;
+            assertEquals(first, word.get(0), size + " bits");
+            assertArrayEquals(word.toLongs(), Word.fromLongs(word.toLongs(), 0, size).toLongs());
+        }
+    }
+
+    /**
+     * Vérifie un mot d'après ses bits, poids fort en premier.
+     */
+    private static void assertWord(String bits, Word word) {
+        assertEquals(bits.length(), word.size(), bits);
+        for (int i = 0; i < bits.length(); i++) {
+            assertEquals(bits.charAt(bits.length() - 1 - i) - '0', word.get(i), bits);
+        }
+    }
+}